@@ -0,0 +1,117 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DownloadBenchmark {
+
+    private static final String FILENAME = "bench.jar";
+    private static final String COPY_TARGET = "copy.jar.part";
+
+    @Param({ "1", "16" })
+    public int sizeMb;
+
+    private byte[] body;
+    private HttpServer server;
+    private String baseUrl;
+    private Path modsDir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        body = new byte[sizeMb * 1024 * 1024];
+        new Random(42).nextBytes(body);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/mods/", exchange -> {
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/mods/";
+        modsDir = Files.createTempDirectory("amu-download-bench");
+    }
+
+    @Setup(Level.Invocation)
+    public void removePrevious() throws IOException {
+        Files.deleteIfExists(modsDir.resolve(FILENAME));
+        Files.deleteIfExists(modsDir.resolve(COPY_TARGET));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        server.stop(0);
+        Files.deleteIfExists(modsDir.resolve(FILENAME));
+        Files.deleteIfExists(modsDir.resolve(COPY_TARGET));
+        Files.deleteIfExists(modsDir);
+    }
+
+    @Benchmark
+    public long downloadMod() throws IOException {
+        ModPackUpdater.downloadMod(baseUrl, FILENAME, modsDir);
+        return Files.size(modsDir.resolve(FILENAME));
+    }
+
+    @Benchmark
+    public long streamCopyBaseline() throws IOException {
+        Path part = modsDir.resolve(COPY_TARGET);
+        long bytes = 0;
+        try (InputStream in = new ByteArrayInputStream(body);
+                OutputStream out = Files.newOutputStream(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+                bytes += n;
+            }
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public long channelCopy() throws IOException {
+        Path part = modsDir.resolve(COPY_TARGET);
+        try (InputStream in = new ByteArrayInputStream(body);
+                FileChannel out = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+                TransferProgress progress = TransferProgress.start(0, body.length, null)) {
+            ModPackUpdater.copy(Channels.newChannel(in), out, progress, UpdaterSettings.DEFAULTS.minBufferSize(),
+                    UpdaterSettings.DEFAULTS.maxBufferSize(), null, null, null);
+            return progress.bytes();
+        }
+    }
+}
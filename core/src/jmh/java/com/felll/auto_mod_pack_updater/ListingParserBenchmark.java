@@ -0,0 +1,62 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListingParserBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int entries;
+
+    private byte[] listing;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JsonArray tree = new JsonArray(entries);
+        for (int i = 0; i < entries; i++) {
+            JsonObject obj = new JsonObject();
+            String dir = i % 25 == 0 ? "config/" : "mods/";
+            obj.addProperty("path", dir + "mod-" + i + ".jar");
+            obj.addProperty("mode", "100644");
+            obj.addProperty("type", i % 50 == 0 ? "tree" : "blob");
+            obj.addProperty("sha", String.format("%040x", i));
+            obj.addProperty("size", 1_048_576 + i);
+            obj.addProperty("url", "https://api.github.com/repos/owner/pack/git/blobs/" + String.format("%040x", i));
+            tree.add(obj);
+        }
+        JsonObject root = new JsonObject();
+        root.addProperty("sha", "3b18e512dba79e4c8300dd08aeb37f8e728b8dad");
+        root.add("tree", tree);
+        root.addProperty("truncated", false);
+        listing = root.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ModsFolderFetcher.TreePage parseTree() throws IOException {
+        return ModsFolderFetcher.parseTree(new ByteArrayInputStream(listing), "mods");
+    }
+}
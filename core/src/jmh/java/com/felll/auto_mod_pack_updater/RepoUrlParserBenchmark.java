@@ -0,0 +1,42 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepoUrlParserBenchmark {
+
+    @Param({
+            "https://github.com/owner/pack/tree/main",
+            "https://gitlab.com/owner/pack/-/tree/dev",
+            "https://codeberg.org/owner/pack/src/branch/main",
+            "https://git.example.org/owner/pack",
+            "https://example.org/packs/pack/mods/"
+    })
+    public String url;
+
+    @Benchmark
+    public RepoUrlParser.BaseUrlInfo parse() {
+        return RepoUrlParser.parse(url);
+    }
+
+    @Benchmark
+    public RepoUrlParser.RepoInfo parseForApi() {
+        return RepoUrlParser.parseForApi(url);
+    }
+}
@@ -0,0 +1,74 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdatePlanBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int mods;
+
+    private Path gameDirectory;
+    private List<String> remote;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        gameDirectory = Files.createTempDirectory("amu-plan-bench");
+        Path modsDir = Files.createDirectories(gameDirectory.resolve("mods"));
+        Set<String> managed = new HashSet<>();
+        remote = new ArrayList<>(mods);
+        for (int i = 0; i < mods; i++) {
+            String name = "mod-" + i + ".jar";
+            if (i % 10 != 0) {
+                Files.createFile(modsDir.resolve(name));
+                managed.add(name);
+            }
+            if (i % 20 != 1) {
+                remote.add(name);
+            }
+        }
+        ModPackUpdater.saveManagedMods(gameDirectory, managed);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(gameDirectory)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    @Benchmark
+    public UpdatePlan computeUpdatePlan() {
+        return ModPackUpdater.computeUpdatePlan(gameDirectory, remote);
+    }
+}
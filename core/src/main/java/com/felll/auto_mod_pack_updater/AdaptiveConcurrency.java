@@ -0,0 +1,63 @@
+package com.felll.auto_mod_pack_updater;
+
+final class AdaptiveConcurrency {
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    private static final double GROWTH_GAIN = 1.05;
+    private static final double DROP_RATIO = 0.8;
+
+    private final int max;
+    private volatile int limit;
+    private long windowStart = System.nanoTime();
+    private long windowBytes;
+    private double lastRate;
+    private int errors;
+
+    AdaptiveConcurrency(int initial, int max) {
+        this.max = Math.max(1, max);
+        this.limit = Math.max(1, Math.min(initial, this.max));
+    }
+
+    static AdaptiveConcurrency fromSettings(UpdaterSettings settings) {
+        return settings.adaptiveConcurrency()
+                ? new AdaptiveConcurrency(settings.maxConcurrentDownloads(), settings.adaptiveMaxConcurrent())
+                : null;
+    }
+
+    int max() {
+        return max;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    synchronized void onError() {
+        errors++;
+    }
+
+    synchronized void sample(long bytes) {
+        long now = System.nanoTime();
+        long elapsed = now - windowStart;
+        if (elapsed < WINDOW_NANOS) {
+            return;
+        }
+        double rate = (bytes - windowBytes) * 1_000_000_000.0 / elapsed;
+        int previous = limit;
+        if (errors > 0) {
+            limit = Math.max(1, previous / 2);
+        } else if (rate >= lastRate * GROWTH_GAIN) {
+            limit = Math.min(max, previous + 1);
+        } else if (rate < lastRate * DROP_RATIO) {
+            limit = Math.max(1, previous * 3 / 4);
+        }
+        if (limit != previous) {
+            ModPackUpdater.LOGGER.debug("Download concurrency {} -> {} at {} KiB/s, {} errors", previous, limit,
+                    (long) rate / 1024, errors);
+        }
+        lastRate = rate;
+        errors = 0;
+        windowStart = now;
+        windowBytes = bytes;
+    }
+}
@@ -0,0 +1,50 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+final class BandwidthLimiter {
+
+    private static final int MIN_CHUNK = 4 * 1024;
+    private static final int CHUNKS_PER_SECOND = 8;
+    private static final long REFILL_WINDOW_NANOS = 1_000_000_000L;
+
+    private final long bytesPerSecond;
+    private long available;
+    private long lastRefill = System.nanoTime();
+
+    BandwidthLimiter(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.available = bytesPerSecond;
+    }
+
+    static BandwidthLimiter fromSettings(UpdaterSettings settings) {
+        long limit = settings.bandwidthLimit();
+        return limit > 0 ? new BandwidthLimiter(limit) : null;
+    }
+
+    int chunkSize(int maxBufferSize) {
+        return (int) Math.max(MIN_CHUNK, Math.min(maxBufferSize, bytesPerSecond / CHUNKS_PER_SECOND));
+    }
+
+    void acquire(int bytes) throws InterruptedIOException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long elapsed = Math.min(now - lastRefill, REFILL_WINDOW_NANOS);
+            available = (long) Math.min(bytesPerSecond,
+                    available + elapsed * (double) bytesPerSecond / REFILL_WINDOW_NANOS);
+            lastRefill = now;
+            available -= bytes;
+            waitNanos = available < 0 ? -available * 1_000_000_000L / bytesPerSecond : 0;
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Download cancelled");
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+public final class ConfigLoader {
+
+    private static final String CONFIG_DIR = "mods/auto-mod-pack-updater";
+    private static final String CONFIG_FILE = "config.txt";
+    private static final String SETTINGS_FILE = "settings.properties";
+
+    private ConfigLoader() {
+    }
+
+    public static Path getConfigDirectory(Path gameDirectory) {
+        return gameDirectory.resolve(CONFIG_DIR);
+    }
+
+    public static Path getConfigPath(Path gameDirectory) {
+        return getConfigDirectory(gameDirectory).resolve(CONFIG_FILE);
+    }
+
+    public static Optional<String> loadRepositoryUrl(Path gameDirectory) {
+        return loadRepositoryUrls(gameDirectory).stream().findFirst();
+    }
+
+    public static List<String> loadRepositoryUrls(Path gameDirectory) {
+        Path configPath = getConfigPath(gameDirectory);
+        if (!Files.exists(configPath)) {
+            return List.of();
+        }
+        try {
+            String content = Files.readString(configPath);
+            return content.lines()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .distinct()
+                    .toList();
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.error("Failed to read config from {}", configPath, e);
+            return List.of();
+        }
+    }
+
+    public static List<String> loadMirrors(Path gameDirectory, String repositoryUrl) {
+        List<String> configured = loadRepositoryUrls(gameDirectory);
+        if (!configured.contains(repositoryUrl)) {
+            return List.of(repositoryUrl);
+        }
+        List<String> mirrors = new ArrayList<>(configured.size());
+        mirrors.add(repositoryUrl);
+        for (String url : configured) {
+            if (!url.equals(repositoryUrl)) {
+                mirrors.add(url);
+            }
+        }
+        return mirrors;
+    }
+
+    public static UpdaterSettings loadSettings(Path gameDirectory) {
+        Path settingsPath = getConfigDirectory(gameDirectory).resolve(SETTINGS_FILE);
+        if (!Files.exists(settingsPath)) {
+            return UpdaterSettings.DEFAULTS;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(settingsPath, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+            return new UpdaterSettings(properties);
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.error("Failed to read settings from {}", settingsPath, e);
+            return UpdaterSettings.DEFAULTS;
+        }
+    }
+
+    public static void saveRepositoryUrl(Path gameDirectory, String url) throws IOException {
+        Path configDir = getConfigDirectory(gameDirectory);
+        Files.createDirectories(configDir);
+        Files.writeString(getConfigPath(gameDirectory), url.trim() + "\n", StandardCharsets.UTF_8);
+    }
+}
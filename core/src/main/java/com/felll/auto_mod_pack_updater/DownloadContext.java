@@ -0,0 +1,18 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.util.concurrent.atomic.LongAdder;
+
+record DownloadContext(HashCache hashCache, JarStore jarStore, int minBufferSize, int maxBufferSize,
+        UpdateReport report, UpdateJournal journal, MirrorSelector mirrors, HedgePolicy hedging,
+        AdaptiveConcurrency concurrency, BandwidthLimiter bandwidth, SharedDownloads shared,
+        LanPeers peers, LongAdder received) {
+
+    static final int DEFAULT_MIN_BUFFER = 64 * 1024;
+    static final int DEFAULT_MAX_BUFFER = 1024 * 1024;
+    static final DownloadContext NONE = new DownloadContext(null, null, DEFAULT_MIN_BUFFER, DEFAULT_MAX_BUFFER,
+            null, null, null, null, null, null, null, null, null);
+
+    TrafficStats traffic() {
+        return report != null ? report.traffic() : null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+final class DownloadDigest {
+
+    private final long declaredSize;
+    private final MessageDigest sha256 = HashCache.newDigest("SHA-256");
+    private final MessageDigest gitSha;
+    private long bytes;
+
+    private DownloadDigest(long declaredSize) {
+        this.declaredSize = declaredSize;
+        if (declaredSize >= 0) {
+            gitSha = HashCache.newDigest("SHA-1");
+            gitSha.update(("blob " + declaredSize + "\0").getBytes(StandardCharsets.US_ASCII));
+        } else {
+            gitSha = null;
+        }
+    }
+
+    static DownloadDigest start(long declaredSize) {
+        return new DownloadDigest(declaredSize);
+    }
+
+    static DownloadDigest resume(Path part, long existing, long declaredSize) throws IOException {
+        DownloadDigest digest = new DownloadDigest(declaredSize);
+        try (InputStream in = Files.newInputStream(part)) {
+            byte[] buffer = new byte[65536];
+            long remaining = existing;
+            int n;
+            while (remaining > 0 && (n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+                digest.sha256.update(buffer, 0, n);
+                if (digest.gitSha != null) {
+                    digest.gitSha.update(buffer, 0, n);
+                }
+                digest.bytes += n;
+                remaining -= n;
+            }
+        }
+        return digest;
+    }
+
+    void update(ByteBuffer data) {
+        int position = data.position();
+        bytes += data.remaining();
+        sha256.update(data);
+        if (gitSha != null) {
+            data.position(position);
+            gitSha.update(data);
+        }
+        data.position(position);
+    }
+
+    HashCache.Entry result(long size) {
+        if (bytes != size) {
+            return null;
+        }
+        String git = gitSha != null && declaredSize == size ? HexFormat.of().formatHex(gitSha.digest()) : null;
+        return new HashCache.Entry(size, 0, HexFormat.of().formatHex(sha256.digest()), git);
+    }
+}
@@ -0,0 +1,198 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+final class DownloadScheduler {
+
+    private static final long LIMIT_RECHECK_MILLIS = 1000;
+
+    private final int maxConcurrent;
+    private final int maxPerHost;
+    private final Deque<DownloadTask> pending = new ArrayDeque<>();
+    private final Map<String, Integer> activePerHost = new HashMap<>();
+    private MirrorSelector mirrors;
+    private AdaptiveConcurrency concurrency;
+    private LongAdder received;
+    private int active;
+    private IOException failure;
+    private final List<String> failed = new ArrayList<>();
+
+    DownloadScheduler(int maxConcurrent, int maxPerHost) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxPerHost = maxPerHost;
+    }
+
+    record Result(Set<String> completed, IOException failure) {
+    }
+
+    Result downloadAll(List<DownloadTask> tasks, Path modsDir, DownloadContext context,
+            ProgressTracker tracker) {
+        Set<String> completed = Collections.synchronizedSet(new HashSet<>());
+        if (tasks.isEmpty()) {
+            return new Result(completed, null);
+        }
+        int workers;
+        synchronized (this) {
+            pending.addAll(tasks);
+            failure = null;
+            failed.clear();
+            mirrors = context.mirrors();
+            concurrency = context.concurrency();
+            received = context.received();
+            active = 0;
+            workers = Math.min(concurrency != null ? concurrency.max() : maxConcurrent, tasks.size());
+        }
+        ProgressTracker progress = tracker != null ? tracker : new ProgressTracker();
+        progress.startDownloads(tasks.size(), workers);
+        List<Thread> threads = new ArrayList<>(workers);
+        Thread.Builder builder = Thread.ofVirtual().name("AutoModPackUpdater-Download-", 0);
+        for (int i = 0; i < workers; i++) {
+            ProgressTracker.Slot slot = progress.slot(i);
+            threads.add(builder.start(() -> runWorker(modsDir, context, completed, slot)));
+        }
+        try {
+            for (Thread t : threads) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            synchronized (this) {
+                pending.clear();
+                if (failure == null) {
+                    failure = new InterruptedIOException("Download cancelled");
+                }
+                notifyAll();
+            }
+            for (Thread t : threads) {
+                t.interrupt();
+            }
+            joinUninterruptibly(threads);
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            return new Result(Set.copyOf(completed), summarize());
+        }
+    }
+
+    private IOException summarize() {
+        if (failure == null || failed.size() <= 1 || failure instanceof InterruptedIOException) {
+            return failure;
+        }
+        return new IOException("Failed to download " + failed.size() + " files: " + String.join(", ", failed),
+                failure);
+    }
+
+    private static void joinUninterruptibly(List<Thread> threads) {
+        boolean interrupted = false;
+        for (Thread t : threads) {
+            while (t.isAlive()) {
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWorker(Path modsDir, DownloadContext context, Set<String> completed,
+            ProgressTracker.Slot slot) {
+        DownloadTask task;
+        while ((task = next()) != null) {
+            try {
+                slot.begin(task.filename());
+                Path target = modsDir.resolve(task.filename());
+                ModPackUpdater.downloadFile(task, target, context, slot);
+                completed.add(task.filename());
+                if (context.journal() != null) {
+                    context.journal().installed(task.filename());
+                }
+                slot.complete(Files.size(target));
+            } catch (IOException | RuntimeException e) {
+                boolean cancelled = e instanceof IOException io && ModPackUpdater.isInterruption(io);
+                if (!cancelled) {
+                    ModPackUpdater.LOGGER.error("Failed to download {}", task.url(), e);
+                    if (context.concurrency() != null) {
+                        context.concurrency().onError();
+                    }
+                    if (context.report() != null) {
+                        context.report().recordFailure(task.filename(), e);
+                    }
+                }
+                synchronized (this) {
+                    if (failure == null || cancelled && !(failure instanceof InterruptedIOException)) {
+                        failure = e instanceof IOException io ? io
+                                : new IOException("Failed to download " + task.filename(), e);
+                    }
+                    if (cancelled) {
+                        pending.clear();
+                    } else {
+                        failed.add(task.filename());
+                    }
+                }
+            } finally {
+                slot.clear();
+                release(task);
+            }
+        }
+    }
+
+    private synchronized DownloadTask next() {
+        while (!pending.isEmpty()) {
+            if (concurrency != null) {
+                concurrency.sample(received.sum());
+            }
+            for (Iterator<DownloadTask> it = pending.iterator(); it.hasNext() && belowLimit();) {
+                DownloadTask task = it.next();
+                DownloadTask bound = mirrors != null ? mirrors.bind(task, this::hasCapacity) : task;
+                if (bound != null && hasCapacity(bound.host())) {
+                    it.remove();
+                    activePerHost.merge(bound.host(), 1, Integer::sum);
+                    active++;
+                    return bound;
+                }
+            }
+            try {
+                wait(concurrency != null ? LIMIT_RECHECK_MILLIS : 0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private boolean belowLimit() {
+        return concurrency == null || active < concurrency.limit();
+    }
+
+    private boolean hasCapacity(String host) {
+        int perHost = concurrency != null ? concurrency.limit() : maxPerHost;
+        return activePerHost.getOrDefault(host, 0) < perHost;
+    }
+
+    private synchronized void release(DownloadTask task) {
+        activePerHost.merge(task.host(), -1, Integer::sum);
+        active--;
+        if (concurrency != null) {
+            concurrency.sample(received.sum());
+        }
+        notifyAll();
+    }
+}
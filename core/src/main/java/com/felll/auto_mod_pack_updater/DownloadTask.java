@@ -0,0 +1,23 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.net.URI;
+
+record DownloadTask(String filename, String url, long expectedSize, String expectedSha256, String expectedGitSha) {
+
+    String host() {
+        return hostOf(url);
+    }
+
+    boolean hasDigest() {
+        return expectedSha256 != null || expectedGitSha != null;
+    }
+
+    DownloadTask withUrl(String mirrorUrl) {
+        return new DownloadTask(filename, mirrorUrl, expectedSize, expectedSha256, expectedGitSha);
+    }
+
+    static String hostOf(String url) {
+        String host = URI.create(url).getHost();
+        return host != null ? host : "";
+    }
+}
@@ -0,0 +1,233 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+final class HashCache {
+
+    private static final String CACHE_FILE = "hash-cache.json";
+    private static final String SHA256_PREFIX = "sha256:";
+    private static final Gson GSON = new Gson();
+
+    private final Path cachePath;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    private HashCache(Path cachePath) {
+        this.cachePath = cachePath;
+    }
+
+    record Entry(long size, long mtime, String sha256, String gitSha) {
+    }
+
+    static HashCache load(Path gameDirectory) {
+        HashCache cache = new HashCache(ConfigLoader.getConfigDirectory(gameDirectory).resolve(CACHE_FILE));
+        if (Files.exists(cache.cachePath)) {
+            cache.read();
+        }
+        cache.seedFromManagedMods(gameDirectory);
+        return cache;
+    }
+
+    private void read() {
+        try {
+            JsonObject root = GSON.fromJson(Files.readString(cachePath, StandardCharsets.UTF_8), JsonObject.class);
+            if (root != null) {
+                for (Map.Entry<String, JsonElement> e : root.entrySet()) {
+                    Entry entry = e.getValue().isJsonObject() ? parseEntry(e.getValue().getAsJsonObject()) : null;
+                    if (entry != null) {
+                        entries.put(e.getKey(), entry);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            ModPackUpdater.LOGGER.warn("Failed to load hash cache, rehashing", e);
+            entries.clear();
+        }
+    }
+
+    private void seedFromManagedMods(Path gameDirectory) {
+        Path modsDir = gameDirectory.resolve("mods");
+        for (Map.Entry<String, Entry> e : ModPackUpdater.loadManagedState(gameDirectory).entrySet()) {
+            if (e.getValue() != null) {
+                entries.putIfAbsent(modsDir.resolve(e.getKey()).toAbsolutePath().normalize().toString(),
+                        e.getValue());
+            }
+        }
+    }
+
+    void save() {
+        if (!dirty) {
+            return;
+        }
+        JsonObject root = new JsonObject();
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            root.add(e.getKey(), toJson(e.getValue()));
+        }
+        try {
+            Files.createDirectories(cachePath.getParent());
+            ModPackUpdater.writeAtomically(cachePath, GSON.toJson(root));
+            dirty = false;
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.warn("Failed to save hash cache", e);
+        }
+    }
+
+    String sha256(Path file) throws IOException {
+        return digests(file).sha256();
+    }
+
+    String gitSha(Path file) throws IOException {
+        return digests(file).gitSha();
+    }
+
+    Entry digests(Path file) throws IOException {
+        String key = file.toAbsolutePath().normalize().toString();
+        long size = Files.size(file);
+        long mtime = Files.getLastModifiedTime(file).toMillis();
+        Entry cached = entries.get(key);
+        if (cached != null && cached.size() == size && cached.mtime() == mtime && cached.sha256() != null
+                && cached.gitSha() != null) {
+            return cached;
+        }
+        Entry computed = computeDigests(file, size, mtime);
+        entries.put(key, computed);
+        dirty = true;
+        return computed;
+    }
+
+    Entry cached(Path file) throws IOException {
+        Entry cached = entries.get(file.toAbsolutePath().normalize().toString());
+        if (cached == null || !Files.isRegularFile(file) || cached.size() != Files.size(file)
+                || cached.mtime() != Files.getLastModifiedTime(file).toMillis()) {
+            return null;
+        }
+        return cached;
+    }
+
+    void record(Path file, String sha256, String gitSha) throws IOException {
+        String key = file.toAbsolutePath().normalize().toString();
+        entries.put(key, new Entry(Files.size(file), Files.getLastModifiedTime(file).toMillis(), sha256, gitSha));
+        dirty = true;
+    }
+
+    Map<Path, Entry> digestAll(List<Path> files) {
+        Map<Path, Entry> result = new HashMap<>();
+        if (files.isEmpty()) {
+            return result;
+        }
+        int threads = Math.min(files.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "AutoModPackUpdater-Hash");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<Entry>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                futures.add(pool.submit(() -> digests(file)));
+            }
+            for (int i = 0; i < files.size(); i++) {
+                try {
+                    result.put(files.get(i), futures.get(i).get());
+                } catch (ExecutionException e) {
+                    ModPackUpdater.LOGGER.warn("Failed to hash {}", files.get(i), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdownNow();
+        }
+        return result;
+    }
+
+    static Entry computeDigests(Path file, long size, long mtime) throws IOException {
+        MessageDigest sha256 = newDigest("SHA-256");
+        MessageDigest sha1 = newDigest("SHA-1");
+        sha1.update(("blob " + size + "\0").getBytes(StandardCharsets.US_ASCII));
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[65536];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                sha256.update(buffer, 0, n);
+                sha1.update(buffer, 0, n);
+            }
+        }
+        return new Entry(size, mtime, HexFormat.of().formatHex(sha256.digest()),
+                HexFormat.of().formatHex(sha1.digest()));
+    }
+
+    static String normalizeGitSha(String hash) {
+        if (hash == null) {
+            return null;
+        }
+        String value = hash.trim().toLowerCase(Locale.ROOT);
+        return value.matches("[0-9a-f]{40}") ? value : null;
+    }
+
+    static String normalizeSha256(String hash) {
+        if (hash == null) {
+            return null;
+        }
+        String value = hash.trim().toLowerCase(Locale.ROOT);
+        if (value.startsWith(SHA256_PREFIX)) {
+            value = value.substring(SHA256_PREFIX.length());
+        }
+        return value.matches("[0-9a-f]{64}") ? value : null;
+    }
+
+    static MessageDigest newDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(algorithm + " not available", e);
+        }
+    }
+
+    static Entry parseEntry(JsonObject obj) {
+        if (obj.has("size") && obj.has("mtime") && (obj.has("sha256") || obj.has("gitSha"))) {
+            return new Entry(obj.get("size").getAsLong(), obj.get("mtime").getAsLong(), getStr(obj, "sha256"),
+                    getStr(obj, "gitSha"));
+        }
+        return null;
+    }
+
+    static JsonObject toJson(Entry entry) {
+        JsonObject obj = new JsonObject();
+        obj.addProperty("size", entry.size());
+        obj.addProperty("mtime", entry.mtime());
+        if (entry.sha256() != null) {
+            obj.addProperty("sha256", entry.sha256());
+        }
+        if (entry.gitSha() != null) {
+            obj.addProperty("gitSha", entry.gitSha());
+        }
+        return obj;
+    }
+
+    private static String getStr(JsonObject obj, String key) {
+        JsonElement el = obj.get(key);
+        return el != null && el.isJsonPrimitive() ? el.getAsString() : null;
+    }
+}
@@ -0,0 +1,223 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+
+public final class HeadlessUpdater {
+
+    private static final int DEFAULT_PARALLEL = 4;
+    private static final String USAGE = "Usage: automodpackupdater [--parallel N] [--instances FILE] [--seed] INSTANCE_DIR...";
+
+    private HeadlessUpdater() {
+    }
+
+    public record Outcome(Path instance, String status, Throwable failure) {
+    }
+
+    public static void main(String[] args) {
+        int parallel = DEFAULT_PARALLEL;
+        boolean seed = false;
+        List<Path> instances = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--parallel" -> parallel = Integer.parseInt(requireValue(args, ++i));
+                    case "--seed" -> seed = true;
+                    case "--instances" -> {
+                        for (String line : Files.readAllLines(Path.of(requireValue(args, ++i)))) {
+                            if (!line.isBlank() && !line.trim().startsWith("#")) {
+                                instances.add(Path.of(line.trim()));
+                            }
+                        }
+                    }
+                    default -> instances.add(Path.of(args[i]));
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        if (instances.isEmpty()) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        int failed = 0;
+        for (Outcome outcome : updateAll(instances, parallel)) {
+            System.out.println(outcome.instance() + ": " + outcome.status()
+                    + (outcome.failure() != null ? " (" + outcome.failure() + ")" : ""));
+            if (outcome.failure() != null) {
+                failed++;
+            }
+        }
+        if (seed) {
+            seed(instances);
+        }
+        System.exit(failed > 0 ? 1 : 0);
+    }
+
+    public static List<Outcome> updateAll(List<Path> instances, int parallel) {
+        SharedDownloads shared = new SharedDownloads();
+        Map<List<String>, CompletableFuture<List<RemoteMod>>> listings = new ConcurrentHashMap<>();
+        Semaphore permits = new Semaphore(Math.max(1, parallel));
+        Outcome[] outcomes = new Outcome[instances.size()];
+        List<Thread> threads = new ArrayList<>(instances.size());
+        Thread.Builder builder = Thread.ofVirtual().name("AutoModPackUpdater-Instance-", 0);
+        for (int i = 0; i < instances.size(); i++) {
+            int index = i;
+            threads.add(builder.start(() -> {
+                Path instance = instances.get(index);
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    outcomes[index] = new Outcome(instance, "cancelled", e);
+                    return;
+                }
+                try {
+                    outcomes[index] = update(instance, shared, listings);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        try {
+            for (Thread t : threads) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            for (Thread t : threads) {
+                t.interrupt();
+            }
+            joinUninterruptibly(threads);
+            Thread.currentThread().interrupt();
+        }
+        return Arrays.asList(outcomes);
+    }
+
+    private static void joinUninterruptibly(List<Thread> threads) {
+        for (Thread t : threads) {
+            while (t.isAlive()) {
+                try {
+                    t.join();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }
+    }
+
+    private static void seed(List<Path> instances) {
+        int sharing = 0;
+        for (Path instance : instances) {
+            if (ModPackUpdater.startPeerSharing(instance)) {
+                sharing++;
+            }
+        }
+        if (sharing == 0) {
+            System.err.println("--seed needs peers.enabled=true in an instance's settings.properties");
+            return;
+        }
+        System.out.println("Serving " + sharing + " instance(s) to LAN peers, stop with Ctrl+C");
+        try {
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Outcome update(Path instance, SharedDownloads shared,
+            Map<List<String>, CompletableFuture<List<RemoteMod>>> listings) {
+        List<String> urls = ConfigLoader.loadRepositoryUrls(instance);
+        if (urls.isEmpty()) {
+            return new Outcome(instance, "not-configured",
+                    new IOException("No repository URL in " + ConfigLoader.getConfigPath(instance)));
+        }
+        UpdateReport report = new UpdateReport(urls.get(0));
+        try {
+            String recovered = recover(instance, urls.get(0), report, shared);
+            List<RemoteMod> mods = listing(urls, instance, report, listings);
+            UpdatePlan plan = ModPackUpdater.planUpdate(instance, mods, report);
+            if (!plan.hasChanges()) {
+                report.finish(recovered != null ? "updated" : "up-to-date", null);
+                return new Outcome(instance, recovered != null ? recovered : "up-to-date", null);
+            }
+            ModPackUpdater.installPlan(instance, mods, plan, null, report, shared);
+            report.finish("updated", null);
+            String updated = "updated: +" + plan.getToAdd().size() + " -" + plan.getToRemove().size();
+            return new Outcome(instance, recovered != null ? updated + " after " + recovered : updated, null);
+        } catch (IOException | RuntimeException e) {
+            String status = cancelled(e) ? "cancelled" : "failed";
+            if (status.equals("failed")) {
+                ModPackUpdater.LOGGER.error("Update of {} failed", instance, e);
+            }
+            report.finish(status, e);
+            return new Outcome(instance, status, e);
+        } finally {
+            report.write(instance);
+        }
+    }
+
+    private static String recover(Path instance, String url, UpdateReport report, SharedDownloads shared)
+            throws IOException {
+        Optional<ModPackUpdater.InterruptedUpdate> interrupted = ModPackUpdater.recoverInterruptedUpdate(instance);
+        if (interrupted.isEmpty()) {
+            return null;
+        }
+        UpdatePlan plan = interrupted.get().plan();
+        UpdateReport recovery = new UpdateReport(url);
+        report.recovery(recovery);
+        try {
+            ModPackUpdater.installPlan(instance, interrupted.get().mods(), plan, null, recovery, shared);
+            recovery.finish("updated", null);
+        } catch (IOException | RuntimeException e) {
+            recovery.finish(cancelled(e) ? "cancelled" : "failed", e);
+            throw e;
+        }
+        return "recovered +" + plan.getToAdd().size() + " -" + plan.getToRemove().size();
+    }
+
+    private static boolean cancelled(Exception e) {
+        return e instanceof InterruptedIOException || Thread.currentThread().isInterrupted();
+    }
+
+    private static List<RemoteMod> listing(List<String> urls, Path instance, UpdateReport report,
+            Map<List<String>, CompletableFuture<List<RemoteMod>>> listings) throws IOException {
+        CompletableFuture<List<RemoteMod>> mine = new CompletableFuture<>();
+        CompletableFuture<List<RemoteMod>> first = listings.putIfAbsent(urls, mine);
+        if (first != null) {
+            try {
+                return first.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Listing cancelled");
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            }
+        }
+        try {
+            List<RemoteMod> mods = ModPackUpdater.fetchRemoteMods(urls.get(0), instance, report);
+            mine.complete(mods);
+            return mods;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static String requireValue(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+}
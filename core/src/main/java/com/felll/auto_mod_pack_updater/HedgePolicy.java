@@ -0,0 +1,341 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+final class HedgePolicy {
+
+    private static final int WINDOW = 256;
+    private static final int MIN_SAMPLES = 8;
+    private static final long MIN_RATE_SAMPLE_BYTES = 64 * 1024;
+    private static final long MIN_TRANSFER_NANOS = 1_000_000_000L;
+    private static final long CHECK_INTERVAL_MILLIS = 250;
+    private static final long TAKEOVER_LEAD = 64 * 1024;
+    private static final int SPILL_BUFFER_SIZE = 64 * 1024;
+
+    private static final ScheduledExecutorService MONITOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "AutoModPackUpdater-Hedge");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final double percentile;
+    private final long[] ttfbSamples = new long[WINDOW];
+    private final double[] rateSamples = new double[WINDOW];
+    private int ttfbCount;
+    private int rateCount;
+    private volatile long ttfbThresholdNanos = -1;
+    private volatile double slowRate;
+
+    HedgePolicy(int percentile) {
+        this.percentile = percentile / 100.0;
+    }
+
+    static HedgePolicy fromSettings(UpdaterSettings settings) {
+        return settings.hedgingEnabled() ? new HedgePolicy(settings.hedgePercentile()) : null;
+    }
+
+    synchronized void record(long ttfbNanos, long bytes, long transferNanos) {
+        if (ttfbNanos > 0) {
+            ttfbSamples[ttfbCount++ % WINDOW] = ttfbNanos;
+            if (ttfbCount >= MIN_SAMPLES) {
+                long[] sorted = Arrays.copyOf(ttfbSamples, Math.min(ttfbCount, WINDOW));
+                Arrays.sort(sorted);
+                ttfbThresholdNanos = sorted[index(sorted.length, percentile)];
+            }
+        }
+        if (bytes >= MIN_RATE_SAMPLE_BYTES && transferNanos > 0) {
+            rateSamples[rateCount++ % WINDOW] = bytes * 1_000_000_000.0 / transferNanos;
+            if (rateCount >= MIN_SAMPLES) {
+                double[] sorted = Arrays.copyOf(rateSamples, Math.min(rateCount, WINDOW));
+                Arrays.sort(sorted);
+                slowRate = sorted[index(sorted.length, 1 - percentile)];
+            }
+        }
+    }
+
+    record Response(HttpResponse<InputStream> response, String url, long startNanos, boolean hedged, String slow,
+            String failed) {
+    }
+
+    Response send(String url, String alternate, Function<String, HttpRequest> request, TrafficStats traffic)
+            throws IOException {
+        long threshold = ttfbThresholdNanos;
+        long start = System.nanoTime();
+        if (threshold <= 0) {
+            return new Response(HttpTransport.send(request.apply(url), traffic), url, start, false, null, null);
+        }
+        CompletableFuture<HttpResponse<InputStream>> primary = HttpTransport.sendStreaming(request.apply(url),
+                false, traffic);
+        try {
+            return new Response(primary.get(threshold, TimeUnit.NANOSECONDS), url, start, false, null, null);
+        } catch (TimeoutException e) {
+            ModPackUpdater.LOGGER.info("No response from {} after {} ms, hedging to {}", url,
+                    threshold / 1_000_000, alternate);
+            long hedgeStart = System.nanoTime();
+            CompletableFuture<HttpResponse<InputStream>> hedge = HttpTransport.sendStreaming(
+                    request.apply(alternate), alternate.equals(url), traffic);
+            return race(primary, url, start, hedge, alternate, hedgeStart);
+        } catch (InterruptedException e) {
+            discard(primary);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Request to " + url + " interrupted");
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    SlowTransferWatch watch(String alternate, boolean sameUrl, TransferProgress progress, InputStream primary,
+            String validator, TrafficStats traffic, Path spill) {
+        return slowRate > 0 ? new SlowTransferWatch(alternate, sameUrl, progress, primary, validator, traffic, spill)
+                : null;
+    }
+
+    private static Response race(CompletableFuture<HttpResponse<InputStream>> first, String firstUrl,
+            long firstStart, CompletableFuture<HttpResponse<InputStream>> second, String secondUrl, long secondStart)
+            throws IOException {
+        try {
+            try {
+                CompletableFuture.anyOf(first, second).get();
+            } catch (ExecutionException e) {
+                if (first.isCompletedExceptionally()) {
+                    return new Response(second.get(), secondUrl, secondStart, true, null, firstUrl);
+                }
+                return new Response(first.get(), firstUrl, firstStart, false, null, secondUrl);
+            }
+            boolean firstWon = first.isDone() && !first.isCompletedExceptionally();
+            discard(firstWon ? second : first);
+            return firstWon ? new Response(first.get(), firstUrl, firstStart, false, null, null)
+                    : new Response(second.get(), secondUrl, secondStart, true, firstUrl, null);
+        } catch (InterruptedException e) {
+            discard(first);
+            discard(second);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Hedged request interrupted");
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static void discard(CompletableFuture<HttpResponse<InputStream>> future) {
+        future.thenAccept(response -> closeQuietly(response.body()));
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static IOException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException io) {
+            return io;
+        }
+        return new IOException(cause);
+    }
+
+    private static int index(int length, double fraction) {
+        return Math.max(0, Math.min(length - 1, (int) Math.ceil(fraction * length) - 1));
+    }
+
+    final class SlowTransferWatch implements AutoCloseable {
+
+        private final String alternate;
+        private final boolean sameUrl;
+        private final TransferProgress progress;
+        private final InputStream primary;
+        private final String validator;
+        private final TrafficStats traffic;
+        private final Path spill;
+        private final long startNanos = System.nanoTime();
+        private final long startBytes;
+        private final ScheduledFuture<?> check;
+        private CompletableFuture<HttpResponse<InputStream>> hedge;
+        private InputStream hedgeBody;
+        private Thread spiller;
+        private long spilled;
+        private boolean spillFailed;
+        private long winnerOffset;
+        private long hedgeStartNanos;
+        private long hedgeTtfbNanos;
+        private boolean closed;
+
+        private SlowTransferWatch(String alternate, boolean sameUrl, TransferProgress progress,
+                InputStream primary, String validator, TrafficStats traffic, Path spill) {
+            this.alternate = alternate;
+            this.sameUrl = sameUrl;
+            this.progress = progress;
+            this.primary = primary;
+            this.validator = validator;
+            this.traffic = traffic;
+            this.spill = spill;
+            this.startBytes = progress.bytes();
+            this.check = MONITOR.scheduleAtFixedRate(this::check, CHECK_INTERVAL_MILLIS, CHECK_INTERVAL_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void check() {
+            if (closed) {
+                return;
+            }
+            if (hedge != null) {
+                if (hedgeBody != null && !spillFailed && winnerOffset + spilled >= progress.bytes() + TAKEOVER_LEAD) {
+                    ModPackUpdater.LOGGER.info("Hedged transfer from {} pulled ahead at byte {}, dropping the slow one",
+                            alternate, winnerOffset + spilled);
+                    check.cancel(false);
+                    closeQuietly(primary);
+                }
+                return;
+            }
+            long elapsed = System.nanoTime() - startNanos;
+            if (elapsed < MIN_TRANSFER_NANOS) {
+                return;
+            }
+            long offset = progress.bytes();
+            double rate = (offset - startBytes) * 1_000_000_000.0 / elapsed;
+            double threshold = slowRate;
+            if (rate >= threshold) {
+                return;
+            }
+            ModPackUpdater.LOGGER.info("Transfer slowed to {} KiB/s (threshold {} KiB/s), hedging to {}",
+                    (long) rate / 1024, (long) threshold / 1024, alternate);
+            HttpRequest.Builder request = HttpTransport.request(alternate, ModPackUpdater.RESPONSE_TIMEOUT)
+                    .header("Range", "bytes=" + offset + "-");
+            if (validator != null) {
+                request.header("If-Range", validator);
+            }
+            hedgeStartNanos = System.nanoTime();
+            hedge = HttpTransport.sendStreaming(request.build(), sameUrl, traffic);
+            hedge.whenComplete((response, failure) -> adopt(response, offset));
+        }
+
+        private synchronized void adopt(HttpResponse<InputStream> response, long offset) {
+            if (response == null) {
+                return;
+            }
+            long hedgeOffset = response.statusCode() == ModPackUpdater.HTTP_PARTIAL
+                    && ModPackUpdater.rangeStartsAt(response, offset) ? offset
+                    : response.statusCode() == ModPackUpdater.HTTP_OK ? 0 : -1;
+            if (closed || hedgeOffset < 0) {
+                closeQuietly(response.body());
+                return;
+            }
+            winnerOffset = hedgeOffset;
+            hedgeTtfbNanos = System.nanoTime() - hedgeStartNanos;
+            hedgeBody = HttpTransport.body(response, ModPackUpdater.READ_TIMEOUT, traffic);
+            spiller = Thread.ofVirtual().name("AutoModPackUpdater-Hedge").start(this::spill);
+        }
+
+        private void spill() {
+            byte[] buffer = new byte[SPILL_BUFFER_SIZE];
+            try (OutputStream out = Files.newOutputStream(spill)) {
+                while (true) {
+                    synchronized (this) {
+                        if (closed) {
+                            return;
+                        }
+                    }
+                    int n = hedgeBody.read(buffer);
+                    if (n < 0) {
+                        return;
+                    }
+                    out.write(buffer, 0, n);
+                    synchronized (this) {
+                        spilled += n;
+                    }
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    spillFailed = true;
+                }
+            }
+        }
+
+        InputStream takeOver() throws IOException {
+            Thread thread;
+            InputStream body;
+            synchronized (this) {
+                closed = true;
+                check.cancel(false);
+                thread = spiller;
+                body = hedgeBody;
+                hedgeBody = null;
+            }
+            if (body == null) {
+                return null;
+            }
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                closeQuietly(body);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Hedge takeover interrupted");
+            }
+            synchronized (this) {
+                if (spillFailed) {
+                    closeQuietly(body);
+                    return null;
+                }
+            }
+            return new SequenceInputStream(Files.newInputStream(spill), body);
+        }
+
+        long offset() {
+            return winnerOffset;
+        }
+
+        long hedgeStartNanos() {
+            return hedgeStartNanos;
+        }
+
+        long hedgeTtfbNanos() {
+            return hedgeTtfbNanos;
+        }
+
+        @Override
+        public void close() {
+            Thread thread;
+            InputStream body;
+            synchronized (this) {
+                closed = true;
+                check.cancel(false);
+                thread = spiller;
+                body = hedgeBody;
+                hedgeBody = null;
+            }
+            if (body != null) {
+                closeQuietly(body);
+            }
+            if (thread != null) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            try {
+                Files.deleteIfExists(spill);
+            } catch (IOException e) {
+                ModPackUpdater.LOGGER.debug("Failed to delete {}", spill, e);
+            }
+        }
+    }
+}
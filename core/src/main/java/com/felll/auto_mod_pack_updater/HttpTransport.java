@@ -0,0 +1,172 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class HttpTransport {
+
+    static final String USER_AGENT = "AutoModPackUpdater/1.0";
+    static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .build();
+
+    private static final HttpClient SEPARATE_CONNECTION_CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(CONNECT_TIMEOUT)
+            .build();
+
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "AutoModPackUpdater-HttpWatchdog");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private HttpTransport() {
+    }
+
+    static HttpRequest.Builder request(String url, Duration timeout) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .GET()
+                .timeout(timeout)
+                .header("User-Agent", USER_AGENT);
+    }
+
+    static HttpResponse<InputStream> send(HttpRequest request, TrafficStats traffic) throws IOException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<InputStream> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            recordResponse(response, System.nanoTime() - start, traffic);
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException ex = new InterruptedIOException("Request to " + request.uri() + " interrupted");
+            ex.initCause(e);
+            throw ex;
+        }
+    }
+
+    static CompletableFuture<HttpResponse<InputStream>> sendStreaming(HttpRequest request,
+            boolean separateConnection, TrafficStats traffic) {
+        long start = System.nanoTime();
+        HttpClient client = separateConnection ? SEPARATE_CONNECTION_CLIENT : CLIENT;
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()).thenApply(response -> {
+            recordResponse(response, System.nanoTime() - start, traffic);
+            return response;
+        });
+    }
+
+    private static void recordResponse(HttpResponse<?> response, long ttfb, TrafficStats traffic) {
+        if (traffic != null) {
+            traffic.recordResponse(response.uri(), ttfb);
+        }
+    }
+
+    static String readErrorBody(InputStream in) {
+        try {
+            byte[] bytes = in.readNBytes(4096);
+            return new String(bytes, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    static InputStream body(HttpResponse<InputStream> response, Duration idle, TrafficStats traffic) {
+        return new IdleTimeoutInputStream(response.body(), idle,
+                traffic != null ? traffic.bytesFor(response.uri()) : null);
+    }
+
+    private static final class IdleTimeoutInputStream extends FilterInputStream {
+
+        private final Duration idle;
+        private final LongAdder bytes;
+        private final ScheduledFuture<?> check;
+        private volatile long reads;
+        private long lastSeen = -1;
+        private volatile boolean expired;
+
+        private IdleTimeoutInputStream(InputStream in, Duration idle, LongAdder bytes) {
+            super(in);
+            this.idle = idle;
+            this.bytes = bytes;
+            long millis = idle.toMillis();
+            this.check = WATCHDOG.scheduleAtFixedRate(this::check, millis, millis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                int b = super.read();
+                reads++;
+                if (b >= 0 && bytes != null) {
+                    bytes.increment();
+                }
+                return b;
+            } catch (IOException e) {
+                throw translate(e);
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                int n = super.read(b, off, len);
+                reads++;
+                if (n > 0 && bytes != null) {
+                    bytes.add(n);
+                }
+                return n;
+            } catch (IOException e) {
+                throw translate(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            check.cancel(false);
+            super.close();
+        }
+
+        private IOException translate(IOException e) {
+            if (!expired) {
+                return e;
+            }
+            HttpTimeoutException timeout = new HttpTimeoutException("No data received for " + idle.toMillis() + " ms");
+            timeout.initCause(e);
+            return timeout;
+        }
+
+        private void check() {
+            long current = reads;
+            if (current == lastSeen) {
+                expired = true;
+                check.cancel(false);
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    ModPackUpdater.LOGGER.debug("Failed to close stalled stream", e);
+                }
+            }
+            lastSeen = current;
+        }
+    }
+}
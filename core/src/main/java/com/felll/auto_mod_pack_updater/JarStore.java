@@ -0,0 +1,223 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+final class JarStore {
+
+    private final Path root;
+    private final long maxBytes;
+    private long knownBytes = -1;
+
+    JarStore(Path root, long maxBytes) {
+        this.root = root;
+        this.maxBytes = maxBytes;
+    }
+
+    static JarStore fromSettings(UpdaterSettings settings) {
+        if (!settings.storeEnabled()) {
+            return null;
+        }
+        return new JarStore(settings.storeDirectory(), settings.storeMaxBytes());
+    }
+
+    Path pathFor(String sha256) {
+        return root.resolve("sha256").resolve(sha256.substring(0, 2)).resolve(sha256 + ".jar");
+    }
+
+    Path gitIndexFor(String gitSha) {
+        return root.resolve("git").resolve(gitSha.substring(0, 2)).resolve(gitSha);
+    }
+
+    HashCache.Entry placeInto(String sha256, String gitSha, long expectedSize, Path target, HashCache hashCache) {
+        String key = sha256 != null ? sha256 : gitSha != null ? resolveGitSha(gitSha) : null;
+        if (key == null) {
+            return null;
+        }
+        Path stored = pathFor(key);
+        try {
+            if (!Files.isRegularFile(stored) || (expectedSize >= 0 && Files.size(stored) != expectedSize)) {
+                return null;
+            }
+            HashCache.Entry actual = hashCache != null ? hashCache.digests(stored)
+                    : HashCache.computeDigests(stored, Files.size(stored), 0);
+            if (!key.equals(actual.sha256()) || (gitSha != null && !gitSha.equals(actual.gitSha()))) {
+                ModPackUpdater.LOGGER.warn("Shared store entry {} was modified, discarding it", stored);
+                Files.deleteIfExists(stored);
+                return null;
+            }
+            Path tmp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+            try {
+                linkOrCopy(stored, tmp);
+                moveIntoPlace(tmp, target);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            touch(stored);
+            ModPackUpdater.LOGGER.debug("Placed {} from shared store", target.getFileName());
+            return actual;
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.warn("Failed to place {} from shared store", target.getFileName(), e);
+            return null;
+        }
+    }
+
+    private String resolveGitSha(String gitSha) {
+        Path index = gitIndexFor(gitSha);
+        try {
+            String sha256 = HashCache.normalizeSha256(Files.readString(index, StandardCharsets.UTF_8));
+            if (sha256 == null || !Files.isRegularFile(pathFor(sha256))) {
+                Files.deleteIfExists(index);
+                return null;
+            }
+            return sha256;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    void add(Path file, String sha256, String gitSha) {
+        Path stored = pathFor(sha256);
+        try {
+            if (gitSha != null) {
+                Path index = gitIndexFor(gitSha);
+                Files.createDirectories(index.getParent());
+                Files.writeString(index, sha256, StandardCharsets.UTF_8);
+            }
+            if (Files.isRegularFile(stored)) {
+                touch(stored);
+                return;
+            }
+            Files.createDirectories(stored.getParent());
+            Path tmp = stored.resolveSibling(stored.getFileName() + "." + UUID.randomUUID() + ".tmp");
+            try {
+                linkOrCopy(file, tmp);
+                moveIntoPlace(tmp, stored);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            touch(stored);
+            added(Files.size(stored));
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.warn("Failed to add {} to shared store", file.getFileName(), e);
+        }
+    }
+
+    private synchronized void added(long size) {
+        if (knownBytes < 0) {
+            evict();
+        } else {
+            knownBytes += size;
+            if (knownBytes > maxBytes) {
+                evict();
+            }
+        }
+    }
+
+    private record StoredFile(Path path, long size, FileTime lastAccess) {
+    }
+
+    synchronized void evict() {
+        Path dir = root.resolve("sha256");
+        if (!Files.isDirectory(dir)) {
+            knownBytes = 0;
+            return;
+        }
+        List<StoredFile> files = new ArrayList<>();
+        long total = 0;
+        try (var stream = Files.walk(dir)) {
+            for (Path p : stream.filter(p -> p.getFileName().toString().endsWith(".jar")).toList()) {
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(p, BasicFileAttributes.class);
+                    if (attrs.isRegularFile()) {
+                        files.add(new StoredFile(p, attrs.size(), attrs.lastAccessTime()));
+                        total += attrs.size();
+                    }
+                } catch (IOException e) {
+                    ModPackUpdater.LOGGER.debug("Skipping unreadable store entry {}", p, e);
+                }
+            }
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.warn("Failed to scan shared store", e);
+            return;
+        }
+        knownBytes = total;
+        if (total <= maxBytes) {
+            return;
+        }
+        try {
+            evictEntries(files, total);
+        } finally {
+            evictGitIndex();
+        }
+    }
+
+    private void evictEntries(List<StoredFile> files, long total) {
+        files.sort(Comparator.comparing(StoredFile::lastAccess));
+        for (StoredFile f : files) {
+            if (total <= maxBytes) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(f.path());
+                total -= f.size();
+                knownBytes = total;
+            } catch (IOException e) {
+                ModPackUpdater.LOGGER.warn("Failed to evict {} from shared store", f.path(), e);
+            }
+        }
+    }
+
+    static void linkOrCopy(Path source, Path target) throws IOException {
+        try {
+            Files.createLink(target, source);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void evictGitIndex() {
+        Path dir = root.resolve("git");
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (var stream = Files.walk(dir)) {
+            for (Path index : stream.filter(Files::isRegularFile).toList()) {
+                try {
+                    String sha256 = HashCache.normalizeSha256(Files.readString(index, StandardCharsets.UTF_8));
+                    if (sha256 == null || !Files.isRegularFile(pathFor(sha256))) {
+                        Files.deleteIfExists(index);
+                    }
+                } catch (IOException e) {
+                    ModPackUpdater.LOGGER.debug("Skipping unreadable store index {}", index, e);
+                }
+            }
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.warn("Failed to clean shared store index", e);
+        }
+    }
+
+    private static void touch(Path stored) throws IOException {
+        Files.getFileAttributeView(stored, BasicFileAttributeView.class)
+                .setTimes(null, FileTime.fromMillis(System.currentTimeMillis()), null);
+    }
+}
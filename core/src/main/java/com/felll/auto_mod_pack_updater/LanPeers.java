@@ -0,0 +1,456 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+final class LanPeers {
+
+    private static final String APP = "automodpackupdater";
+    private static final String GROUP = "239.255.42.99";
+    private static final String SHA256_PATH = "/sha256/";
+    private static final String GIT_PATH = "/git/";
+    private static final String INDEX_PATH = "/index";
+    private static final String PEER_SUFFIX = ".peer";
+    private static final long ANNOUNCE_INTERVAL_MILLIS = 2000;
+    private static final long PEER_TTL_MILLIS = 10_000;
+    private static final long QUERY_WAIT_NANOS = 300_000_000L;
+    private static final List<String> BRIDGE_PREFIXES = List.of("docker", "br-", "veth", "virbr", "vmnet", "vboxnet",
+            "tun", "tap", "wg", "zt", "utun", "tailscale");
+    private static final Duration PEER_TIMEOUT = Duration.ofSeconds(5);
+    private static final Gson GSON = new Gson();
+    private static final Map<Path, LanPeers> RUNNING = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService ANNOUNCER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "AutoModPackUpdater-PeerAnnounce");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final String id = UUID.randomUUID().toString();
+    private final AtomicLong revision = new AtomicLong();
+    private final long startNanos = System.nanoTime();
+    private boolean indexed;
+    private final Map<String, Shared> bySha256 = new ConcurrentHashMap<>();
+    private final Map<String, Shared> byGitSha = new ConcurrentHashMap<>();
+    private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+    private final InetAddress group;
+    private final NetworkInterface nic;
+    private final int discoveryPort;
+    private final HttpServer server;
+    private final MulticastSocket socket;
+
+    private record Peer(String baseUrl, long lastSeen, long revision, Set<String> sha256, Set<String> gitSha) {
+
+        boolean holds(DownloadTask task) {
+            return task.expectedSha256() != null ? sha256.contains(task.expectedSha256().toLowerCase(Locale.ROOT))
+                    : gitSha.contains(task.expectedGitSha().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private record Shared(Path file, long size, long mtime) {
+
+        boolean isCurrent() {
+            try {
+                return Files.size(file) == size && Files.getLastModifiedTime(file).toMillis() == mtime;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+
+    private LanPeers(int discoveryPort, int httpPort) throws IOException {
+        this.group = InetAddress.getByName(GROUP);
+        this.discoveryPort = discoveryPort;
+        NetworkInterface lan = routedInterface(group);
+        if (lan == null) {
+            lan = lanInterface(true);
+        }
+        if (lan == null) {
+            lan = lanInterface(false);
+        }
+        InetAddress address = lan != null ? lanAddress(lan, false) : InetAddress.getLoopbackAddress();
+        if (lan == null) {
+            ModPackUpdater.LOGGER.info("No LAN interface found, sharing mods with instances on this machine only");
+            lan = NetworkInterface.getByInetAddress(address);
+        }
+        this.nic = lan;
+        this.server = HttpServer.create(new InetSocketAddress(address, httpPort), 0);
+        this.socket = new MulticastSocket(discoveryPort);
+        if (nic != null) {
+            socket.setNetworkInterface(nic);
+        }
+    }
+
+    private static NetworkInterface routedInterface(InetAddress group) {
+        try (DatagramSocket probe = new DatagramSocket()) {
+            probe.connect(group, 9);
+            InetAddress local = probe.getLocalAddress();
+            NetworkInterface nic = local.isAnyLocalAddress() ? null : NetworkInterface.getByInetAddress(local);
+            return nic != null && usable(nic) && lanAddress(nic, false) != null ? nic : null;
+        } catch (IOException | UncheckedIOException e) {
+            return null;
+        }
+    }
+
+    private static NetworkInterface lanInterface(boolean siteLocal) throws IOException {
+        for (NetworkInterface candidate : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+            if (usable(candidate) && !isBridge(candidate) && lanAddress(candidate, siteLocal) != null) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static boolean usable(NetworkInterface candidate) throws IOException {
+        return candidate.isUp() && !candidate.isLoopback() && !candidate.isVirtual() && !candidate.isPointToPoint()
+                && candidate.supportsMulticast();
+    }
+
+    private static boolean isBridge(NetworkInterface candidate) {
+        String name = candidate.getName().toLowerCase(Locale.ROOT);
+        for (String prefix : BRIDGE_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static InetAddress lanAddress(NetworkInterface candidate, boolean siteLocal) {
+        InetAddress fallback = null;
+        for (InetAddress address : Collections.list(candidate.getInetAddresses())) {
+            if (address instanceof Inet4Address) {
+                if (address.isSiteLocalAddress()) {
+                    return address;
+                }
+                fallback = address;
+            }
+        }
+        return siteLocal ? null : fallback;
+    }
+
+    static LanPeers start(Path gameDirectory, UpdaterSettings settings) {
+        if (!settings.peersEnabled()) {
+            return null;
+        }
+        return RUNNING.computeIfAbsent(gameDirectory.toAbsolutePath().normalize(), dir -> {
+            try {
+                LanPeers lan = new LanPeers(settings.peerDiscoveryPort(), settings.peerPort());
+                lan.open();
+                return lan;
+            } catch (IOException e) {
+                ModPackUpdater.LOGGER.warn("Failed to start LAN peer sharing", e);
+                return null;
+            }
+        });
+    }
+
+    private void open() throws IOException {
+        server.createContext(SHA256_PATH, exchange -> serve(exchange, bySha256, SHA256_PATH));
+        server.createContext(GIT_PATH, exchange -> serve(exchange, byGitSha, GIT_PATH));
+        server.createContext(INDEX_PATH, this::serveIndex);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        socket.joinGroup(new InetSocketAddress(group, 0), nic);
+        Thread.ofPlatform().daemon().name("AutoModPackUpdater-PeerListen").start(this::listen);
+        ANNOUNCER.execute(() -> send(true));
+        ANNOUNCER.scheduleAtFixedRate(() -> send(false), ANNOUNCE_INTERVAL_MILLIS, ANNOUNCE_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+        ModPackUpdater.LOGGER.info("Sharing verified mods with LAN peers on {}:{}",
+                server.getAddress().getAddress().getHostAddress(), server.getAddress().getPort());
+    }
+
+    void share(Path file, String sha256, String gitSha) {
+        try {
+            Shared shared = new Shared(file, Files.size(file), Files.getLastModifiedTime(file).toMillis());
+            if (sha256 != null) {
+                bySha256.put(sha256, shared);
+            }
+            if (gitSha != null) {
+                byGitSha.put(gitSha, shared);
+            }
+            revision.incrementAndGet();
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.debug("Not sharing {} with peers", file, e);
+        }
+    }
+
+    void shareInstalled(Path gameDirectory, HashCache hashCache) {
+        Path modsDir = gameDirectory.resolve("mods");
+        List<Path> files = new ArrayList<>();
+        for (String filename : ModPackUpdater.loadManagedMods(gameDirectory)) {
+            Path file = modsDir.resolve(filename);
+            if (Files.isRegularFile(file)) {
+                files.add(file);
+            }
+        }
+        for (Map.Entry<Path, HashCache.Entry> e : hashCache.digestAll(files).entrySet()) {
+            share(e.getKey(), e.getValue().sha256(), e.getValue().gitSha());
+        }
+    }
+
+    HashCache.Entry fetch(DownloadTask task, Path part, DownloadContext context, ProgressTracker.Slot slot)
+            throws IOException {
+        String path = task.expectedSha256() != null ? SHA256_PATH + task.expectedSha256()
+                : task.expectedGitSha() != null ? GIT_PATH + task.expectedGitSha()
+                : null;
+        if (path == null) {
+            return null;
+        }
+        Path download = part.resolveSibling(task.filename() + PEER_SUFFIX + ModPackUpdater.PART_SUFFIX);
+        for (Peer peer : livePeers(task)) {
+            String url = peer.baseUrl() + path.substring(1);
+            try {
+                HttpResponse<InputStream> response = HttpTransport.send(HttpTransport.request(url, PEER_TIMEOUT)
+                        .build(), context.traffic());
+                try (InputStream in = HttpTransport.body(response, PEER_TIMEOUT, context.traffic())) {
+                    if (response.statusCode() != ModPackUpdater.HTTP_OK) {
+                        continue;
+                    }
+                    DownloadDigest digest = DownloadDigest.start(task.expectedSize());
+                    try (FileChannel out = FileChannel.open(download, StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                            TransferProgress progress = TransferProgress.start(0, task.expectedSize(),
+                                    slot.reporter())) {
+                        slot.attach(progress);
+                        ModPackUpdater.copy(Channels.newChannel(in), out, progress, context.minBufferSize(),
+                                context.maxBufferSize(), context.bandwidth(), digest, context.received());
+                    }
+                    HashCache.Entry digests = ModPackUpdater.verifyDownload(download, task.expectedSize(),
+                            task.expectedSha256(), task.expectedGitSha(), digest);
+                    ModPackUpdater.moveIntoPlace(download, part);
+                    return digests;
+                }
+            } catch (IOException e) {
+                Files.deleteIfExists(download);
+                if (ModPackUpdater.isInterruption(e)) {
+                    throw e;
+                }
+                ModPackUpdater.LOGGER.debug("Peer {} could not serve {}: {}", peer.baseUrl(), task.filename(),
+                        e.toString());
+            }
+        }
+        return null;
+    }
+
+    private List<Peer> livePeers(DownloadTask task) throws InterruptedIOException {
+        awaitFirstIndex();
+        long now = System.currentTimeMillis();
+        peers.values().removeIf(p -> now - p.lastSeen() > PEER_TTL_MILLIS);
+        List<Peer> live = new ArrayList<>();
+        for (Peer peer : peers.values()) {
+            if (peer.holds(task)) {
+                live.add(peer);
+            }
+        }
+        Collections.shuffle(live);
+        return live;
+    }
+
+    private synchronized void awaitFirstIndex() throws InterruptedIOException {
+        long wait;
+        while (!indexed && (wait = startNanos + QUERY_WAIT_NANOS - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Peer discovery interrupted");
+            }
+        }
+    }
+
+    private synchronized void indexed() {
+        indexed = true;
+        notifyAll();
+    }
+
+    private void send(boolean query) {
+        JsonObject message = new JsonObject();
+        message.addProperty("app", APP);
+        message.addProperty("id", id);
+        message.addProperty("port", server.getAddress().getPort());
+        message.addProperty("revision", revision.get());
+        if (query) {
+            message.addProperty("query", true);
+        }
+        byte[] data = GSON.toJson(message).getBytes(StandardCharsets.UTF_8);
+        try {
+            socket.send(new DatagramPacket(data, data.length, group, discoveryPort));
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.debug("Failed to announce to LAN peers", e);
+        }
+    }
+
+    private void listen() {
+        byte[] buffer = new byte[1024];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                JsonObject message = GSON.fromJson(
+                        new String(packet.getData(), packet.getOffset(), packet.getLength(), StandardCharsets.UTF_8),
+                        JsonObject.class);
+                if (message == null || !message.has("app") || !APP.equals(message.get("app").getAsString())
+                        || !message.has("id") || !message.has("port")) {
+                    continue;
+                }
+                String peerId = message.get("id").getAsString();
+                if (peerId.equals(id)) {
+                    continue;
+                }
+                String baseUrl = new URI("http", null, packet.getAddress().getHostAddress(),
+                        message.get("port").getAsInt(), "/", null, null).toString();
+                long peerRevision = message.has("revision") ? message.get("revision").getAsLong() : 0;
+                if (message.has("query")) {
+                    ANNOUNCER.execute(() -> send(false));
+                }
+                seen(peerId, baseUrl, peerRevision);
+            } catch (JsonParseException | IllegalStateException | UnsupportedOperationException
+                    | NumberFormatException | URISyntaxException e) {
+                ModPackUpdater.LOGGER.debug("Ignoring malformed peer announcement", e);
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    ModPackUpdater.LOGGER.warn("LAN peer discovery stopped", e);
+                }
+                return;
+            }
+        }
+    }
+
+    private void seen(String peerId, String baseUrl, long peerRevision) {
+        long now = System.currentTimeMillis();
+        if (!peers.containsKey(peerId)) {
+            ModPackUpdater.LOGGER.info("Found LAN peer at {}", baseUrl);
+        }
+        Peer peer = peers.compute(peerId, (key, previous) -> previous != null && previous.baseUrl().equals(baseUrl)
+                ? new Peer(baseUrl, now, previous.revision(), previous.sha256(), previous.gitSha())
+                : new Peer(baseUrl, now, 0, Set.of(), Set.of()));
+        if (peerRevision > peer.revision()) {
+            Thread.ofVirtual().name("AutoModPackUpdater-PeerIndex").start(() -> loadIndex(peerId, baseUrl));
+        }
+    }
+
+    private void loadIndex(String peerId, String baseUrl) {
+        try {
+            HttpResponse<InputStream> response = HttpTransport.send(
+                    HttpTransport.request(baseUrl + INDEX_PATH.substring(1), PEER_TIMEOUT).build(), null);
+            JsonObject index;
+            try (InputStream in = HttpTransport.body(response, PEER_TIMEOUT, null)) {
+                if (response.statusCode() != ModPackUpdater.HTTP_OK) {
+                    return;
+                }
+                index = GSON.fromJson(new String(in.readAllBytes(), StandardCharsets.UTF_8), JsonObject.class);
+            }
+            if (index == null) {
+                return;
+            }
+            long peerRevision = index.has("revision") ? index.get("revision").getAsLong() : 0;
+            Set<String> sha256 = keys(index.getAsJsonArray("sha256"));
+            Set<String> gitSha = keys(index.getAsJsonArray("git"));
+            peers.computeIfPresent(peerId, (key, peer) -> peer.baseUrl().equals(baseUrl)
+                    && peer.revision() < peerRevision
+                            ? new Peer(baseUrl, peer.lastSeen(), peerRevision, sha256, gitSha)
+                            : peer);
+            indexed();
+        } catch (IOException | JsonParseException | IllegalStateException | ClassCastException e) {
+            ModPackUpdater.LOGGER.debug("Failed to read the mod index of LAN peer {}", baseUrl, e);
+        }
+    }
+
+    private static Set<String> keys(JsonArray array) {
+        Set<String> keys = new HashSet<>();
+        if (array != null) {
+            for (JsonElement element : array) {
+                keys.add(element.getAsString().toLowerCase(Locale.ROOT));
+            }
+        }
+        return keys;
+    }
+
+    private void serveIndex(HttpExchange exchange) {
+        try {
+            JsonObject index = new JsonObject();
+            index.addProperty("revision", revision.get());
+            JsonArray sha256 = new JsonArray();
+            bySha256.keySet().forEach(sha256::add);
+            index.add("sha256", sha256);
+            JsonArray gitSha = new JsonArray();
+            byGitSha.keySet().forEach(gitSha::add);
+            index.add("git", gitSha);
+            byte[] body = GSON.toJson(index).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.debug("Failed to serve the mod index to a LAN peer", e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void serve(HttpExchange exchange, Map<String, Shared> index, String prefix) {
+        try {
+            String key = exchange.getRequestURI().getPath().substring(prefix.length()).toLowerCase(Locale.ROOT);
+            Shared shared = index.get(key);
+            if (shared != null && !shared.isCurrent()) {
+                index.remove(key, shared);
+                shared = null;
+            }
+            if (shared == null || !"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(shared == null ? 404 : 405, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/java-archive");
+            exchange.sendResponseHeaders(200, shared.size());
+            try (OutputStream out = exchange.getResponseBody()) {
+                Files.copy(shared.file(), out);
+            }
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.debug("Failed to serve {} to a LAN peer", exchange.getRequestURI(), e);
+        } finally {
+            exchange.close();
+        }
+    }
+}
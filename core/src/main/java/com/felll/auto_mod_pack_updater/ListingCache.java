@@ -0,0 +1,116 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+final class ListingCache {
+
+    private static final String CACHE_FILE = "http-cache.json";
+    private static final Gson GSON = new Gson();
+
+    private final Path cachePath;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private boolean dirty;
+
+    private ListingCache(Path cachePath) {
+        this.cachePath = cachePath;
+    }
+
+    record Entry(String etag, String lastModified, JsonArray items, String next, int pages) {
+    }
+
+    static ListingCache load(Path gameDirectory) {
+        ListingCache cache = new ListingCache(ConfigLoader.getConfigDirectory(gameDirectory).resolve(CACHE_FILE));
+        if (!Files.exists(cache.cachePath)) {
+            return cache;
+        }
+        try {
+            JsonObject root = GSON.fromJson(Files.readString(cache.cachePath, StandardCharsets.UTF_8), JsonObject.class);
+            if (root != null) {
+                for (Map.Entry<String, JsonElement> e : root.entrySet()) {
+                    if (!e.getValue().isJsonObject()) {
+                        continue;
+                    }
+                    JsonObject obj = e.getValue().getAsJsonObject();
+                    if (obj.has("items") && obj.get("items").isJsonArray()
+                            && hasFileItems(obj.getAsJsonArray("items"))) {
+                        cache.entries.put(e.getKey(), new Entry(getStr(obj, "etag"), getStr(obj, "lastModified"),
+                                obj.getAsJsonArray("items"), getStr(obj, "next"),
+                                obj.has("pages") ? obj.get("pages").getAsInt() : 0));
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            ModPackUpdater.LOGGER.warn("Failed to load listing cache", e);
+            cache.entries.clear();
+        }
+        return cache;
+    }
+
+    Entry get(String url) {
+        return entries.get(url);
+    }
+
+    void put(String url, Entry entry) {
+        if (entry.etag() == null && entry.lastModified() == null) {
+            entries.remove(url);
+        } else {
+            entries.put(url, entry);
+        }
+        dirty = true;
+    }
+
+    void save() {
+        if (!dirty) {
+            return;
+        }
+        JsonObject root = new JsonObject();
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            JsonObject obj = new JsonObject();
+            if (e.getValue().etag() != null) {
+                obj.addProperty("etag", e.getValue().etag());
+            }
+            if (e.getValue().lastModified() != null) {
+                obj.addProperty("lastModified", e.getValue().lastModified());
+            }
+            obj.add("items", e.getValue().items());
+            if (e.getValue().next() != null) {
+                obj.addProperty("next", e.getValue().next());
+            }
+            if (e.getValue().pages() > 1) {
+                obj.addProperty("pages", e.getValue().pages());
+            }
+            root.add(e.getKey(), obj);
+        }
+        try {
+            Files.createDirectories(cachePath.getParent());
+            ModPackUpdater.writeAtomically(cachePath, GSON.toJson(root));
+            dirty = false;
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.warn("Failed to save listing cache", e);
+        }
+    }
+
+    private static boolean hasFileItems(JsonArray items) {
+        for (JsonElement item : items) {
+            if (!item.isJsonObject() || !item.getAsJsonObject().has("name")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getStr(JsonObject obj, String key) {
+        JsonElement el = obj.get(key);
+        return el != null && el.isJsonPrimitive() ? el.getAsString() : null;
+    }
+}
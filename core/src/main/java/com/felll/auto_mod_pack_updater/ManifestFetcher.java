@@ -0,0 +1,127 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+public final class ManifestFetcher {
+
+    private ManifestFetcher() {
+    }
+
+    public static boolean isManifestUrl(String url) {
+        try {
+            String path = URI.create(url.trim()).getPath();
+            return path != null && path.toLowerCase().endsWith(".json");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public static List<RemoteMod> fetchManifest(String manifestUrl) throws IOException {
+        return fetchManifest(manifestUrl, null);
+    }
+
+    static List<RemoteMod> fetchManifest(String manifestUrl, TrafficStats traffic) throws IOException {
+        String url = manifestUrl.trim();
+        return ModsFolderFetcher.fetchUrl(url, "application/json", null, traffic, in -> {
+            try {
+                return parseManifest(new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8)),
+                        URI.create(url));
+            } catch (MalformedJsonException | IllegalStateException | NumberFormatException e) {
+                throw new IOException("Invalid manifest: " + e.getMessage(), e);
+            }
+        }).body();
+    }
+
+    static List<RemoteMod> parseManifest(JsonReader reader, URI manifestUri) throws IOException {
+        List<RemoteMod> mods = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+            readEntries(reader, manifestUri, mods, seen);
+            return mods;
+        }
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            throw new IOException("Invalid manifest: expected a \"mods\" array");
+        }
+        boolean sawMods = false;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("mods") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                readEntries(reader, manifestUri, mods, seen);
+                sawMods = true;
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (!sawMods) {
+            throw new IOException("Invalid manifest: expected a \"mods\" array");
+        }
+        return mods;
+    }
+
+    private static void readEntries(JsonReader reader, URI manifestUri, List<RemoteMod> mods, Set<String> seen)
+            throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            String filename = null;
+            String url = null;
+            String hash = null;
+            long size = -1;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "filename" -> filename = nextString(reader);
+                    case "url" -> url = nextString(reader);
+                    case "hash" -> hash = nextString(reader);
+                    case "size" -> {
+                        String value = nextString(reader);
+                        size = value != null ? Long.parseLong(value) : -1;
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (filename == null || !isSafeFilename(filename) || !filename.toLowerCase().endsWith(".jar")) {
+                ModPackUpdater.LOGGER.warn("Skipping manifest entry with invalid filename: {}", filename);
+                continue;
+            }
+            if (!seen.add(filename)) {
+                continue;
+            }
+            String resolved = url != null && !url.isBlank()
+                    ? manifestUri.resolve(url.trim()).toString()
+                    : manifestUri.resolve(filename).toString();
+            mods.add(new RemoteMod(filename, resolved, hash, size));
+        }
+        reader.endArray();
+    }
+
+    private static boolean isSafeFilename(String filename) {
+        return !filename.isEmpty() && !filename.contains("/") && !filename.contains("\\")
+                && !filename.equals(".") && !filename.equals("..");
+    }
+
+    private static String nextString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return reader.nextString();
+        }
+        reader.skipValue();
+        return null;
+    }
+}
@@ -0,0 +1,259 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+final class MirrorSelector {
+
+    private static final String STATS_FILE = "mirror-stats.json";
+    private static final Gson GSON = new Gson();
+    private static final double SMOOTHING = 0.3;
+    private static final long MIN_THROUGHPUT_SAMPLE = 64 * 1024;
+    private static final long FAILURE_COOLDOWN_MILLIS = 60_000;
+    private static final int MAX_COOLDOWN_STEPS = 10;
+    private static final int PROBE_BYTES = 256 * 1024;
+    private static final Duration PROBE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Path statsPath;
+    private final List<String> bases;
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    private MirrorSelector(Path statsPath, List<String> bases) {
+        this.statsPath = statsPath;
+        this.bases = bases;
+    }
+
+    record Stats(double ttfbMillis, double bytesPerSecond, int failures, long lastFailure) {
+    }
+
+    static MirrorSelector load(Path gameDirectory, List<String> bases) {
+        if (bases.size() < 2) {
+            return null;
+        }
+        MirrorSelector selector = new MirrorSelector(
+                ConfigLoader.getConfigDirectory(gameDirectory).resolve(STATS_FILE), List.copyOf(bases));
+        if (!Files.exists(selector.statsPath)) {
+            return selector;
+        }
+        try {
+            JsonObject root = GSON.fromJson(Files.readString(selector.statsPath, StandardCharsets.UTF_8),
+                    JsonObject.class);
+            if (root != null) {
+                for (String base : selector.bases) {
+                    JsonElement el = root.get(base);
+                    if (el != null && el.isJsonObject()) {
+                        JsonObject obj = el.getAsJsonObject();
+                        selector.stats.put(base, new Stats(getDouble(obj, "ttfbMillis"),
+                                getDouble(obj, "bytesPerSecond"), (int) getDouble(obj, "failures"),
+                                (long) getDouble(obj, "lastFailure")));
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            ModPackUpdater.LOGGER.warn("Failed to load mirror stats, probing again", e);
+            selector.stats.clear();
+        }
+        return selector;
+    }
+
+    void save() {
+        if (!dirty) {
+            return;
+        }
+        JsonObject root = new JsonObject();
+        for (Map.Entry<String, Stats> e : stats.entrySet()) {
+            JsonObject obj = new JsonObject();
+            obj.addProperty("ttfbMillis", e.getValue().ttfbMillis());
+            obj.addProperty("bytesPerSecond", e.getValue().bytesPerSecond());
+            obj.addProperty("failures", e.getValue().failures());
+            obj.addProperty("lastFailure", e.getValue().lastFailure());
+            root.add(e.getKey(), obj);
+        }
+        try {
+            Files.createDirectories(statsPath.getParent());
+            ModPackUpdater.writeAtomically(statsPath, GSON.toJson(root));
+            dirty = false;
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.warn("Failed to save mirror stats", e);
+        }
+    }
+
+    List<String> candidates(DownloadTask task) {
+        String base = baseOf(task.url());
+        if (base == null) {
+            return List.of(task.url());
+        }
+        String relative = task.url().substring(base.length());
+        long now = System.currentTimeMillis();
+        List<String> ranked = new ArrayList<>(bases);
+        ranked.sort(Comparator.comparing((String b) -> !isHealthy(b, now))
+                .thenComparingDouble(b -> estimateMillis(b, task.expectedSize())));
+        List<String> urls = new ArrayList<>(ranked.size());
+        for (String b : ranked) {
+            urls.add(b + relative);
+        }
+        return urls;
+    }
+
+    List<String> sources(DownloadTask task) {
+        List<String> urls = new ArrayList<>(candidates(task));
+        urls.remove(task.url());
+        urls.add(0, task.url());
+        return urls;
+    }
+
+    DownloadTask bind(DownloadTask task, Predicate<String> hostAvailable) {
+        for (String url : candidates(task)) {
+            if (hostAvailable.test(DownloadTask.hostOf(url))) {
+                return task.withUrl(url);
+            }
+        }
+        return null;
+    }
+
+    void succeeded(String url, long ttfbNanos, long bytes, long durationNanos) {
+        observe(url, ttfbNanos, bytes, durationNanos, true);
+    }
+
+    void slow(String url, long ttfbNanos, long bytes, long durationNanos) {
+        observe(url, ttfbNanos, bytes, durationNanos, false);
+    }
+
+    private void observe(String url, long ttfbNanos, long bytes, long durationNanos, boolean healthy) {
+        String base = baseOf(url);
+        if (base == null) {
+            return;
+        }
+        double ttfbMillis = ttfbNanos / 1_000_000.0;
+        long transferNanos = durationNanos - ttfbNanos;
+        double bytesPerSecond = bytes >= MIN_THROUGHPUT_SAMPLE && transferNanos > 0
+                ? bytes * 1_000_000_000.0 / transferNanos
+                : -1;
+        stats.compute(base, (k, old) -> {
+            if (old == null) {
+                return new Stats(ttfbMillis, Math.max(0, bytesPerSecond), 0, 0);
+            }
+            double rate = bytesPerSecond < 0 ? old.bytesPerSecond()
+                    : old.bytesPerSecond() == 0 ? bytesPerSecond
+                    : smooth(old.bytesPerSecond(), bytesPerSecond);
+            return healthy ? new Stats(smooth(old.ttfbMillis(), ttfbMillis), rate, 0, 0)
+                    : new Stats(smooth(old.ttfbMillis(), ttfbMillis), rate, old.failures(), old.lastFailure());
+        });
+        dirty = true;
+    }
+
+    void failed(String url) {
+        String base = baseOf(url);
+        if (base == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        stats.compute(base, (k, old) -> old == null
+                ? new Stats(0, 0, 1, now)
+                : new Stats(old.ttfbMillis(), old.bytesPerSecond(), old.failures() + 1, now));
+        dirty = true;
+    }
+
+    void probe(DownloadTask sample, TrafficStats traffic) {
+        String sampleBase = baseOf(sample.url());
+        if (sampleBase == null) {
+            return;
+        }
+        String relative = sample.url().substring(sampleBase.length());
+        List<Thread> probes = new ArrayList<>();
+        Thread.Builder builder = Thread.ofVirtual().name("AutoModPackUpdater-Probe-", 0);
+        for (String base : bases) {
+            if (!stats.containsKey(base)) {
+                probes.add(builder.start(() -> probeUrl(base + relative, traffic)));
+            }
+        }
+        try {
+            for (Thread t : probes) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            for (Thread t : probes) {
+                t.interrupt();
+            }
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void probeUrl(String url, TrafficStats traffic) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<InputStream> response = HttpTransport.send(HttpTransport.request(url, PROBE_TIMEOUT)
+                    .header("Range", "bytes=0-" + (PROBE_BYTES - 1))
+                    .build(), traffic);
+            long ttfb = System.nanoTime() - start;
+            try (InputStream in = HttpTransport.body(response, PROBE_TIMEOUT, traffic)) {
+                int code = response.statusCode();
+                if (code != 200 && code != 206) {
+                    throw new IOException("HTTP " + code + " for " + url);
+                }
+                byte[] buffer = new byte[16384];
+                long read = 0;
+                int n;
+                while (read < PROBE_BYTES && (n = in.read(buffer)) != -1) {
+                    read += n;
+                }
+                succeeded(url, ttfb, read, System.nanoTime() - start);
+            }
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.warn("Mirror probe of {} failed: {}", url, e.toString());
+            failed(url);
+        }
+    }
+
+    private String baseOf(String url) {
+        String best = null;
+        for (String base : bases) {
+            if (url.startsWith(base) && (best == null || base.length() > best.length())) {
+                best = base;
+            }
+        }
+        return best;
+    }
+
+    private boolean isHealthy(String base, long now) {
+        Stats s = stats.get(base);
+        if (s == null || s.failures() == 0) {
+            return true;
+        }
+        return now - s.lastFailure() > FAILURE_COOLDOWN_MILLIS * Math.min(s.failures(), MAX_COOLDOWN_STEPS);
+    }
+
+    private double estimateMillis(String base, long size) {
+        Stats s = stats.get(base);
+        if (s == null) {
+            return 0;
+        }
+        double transfer = size > 0 && s.bytesPerSecond() > 0 ? size * 1000.0 / s.bytesPerSecond() : 0;
+        return s.ttfbMillis() + transfer;
+    }
+
+    private static double smooth(double previous, double sample) {
+        return previous + SMOOTHING * (sample - previous);
+    }
+
+    private static double getDouble(JsonObject obj, String key) {
+        JsonElement el = obj.get(key);
+        return el != null && el.isJsonPrimitive() ? el.getAsDouble() : 0;
+    }
+}
@@ -0,0 +1,940 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+public final class ModPackUpdater {
+
+    public static final Logger LOGGER = LoggerFactory.getLogger(ModPackUpdater.class);
+    private static final String STATE_FILE = "managed-mods.json";
+    static final String PART_SUFFIX = ".part";
+    private static final String VALIDATOR_SUFFIX = ".validator";
+    private static final String HEDGE_SUFFIX = ".hedge";
+    static final int HTTP_OK = 200;
+    static final int HTTP_PARTIAL = 206;
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+    static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(30);
+    static final Duration READ_TIMEOUT = Duration.ofSeconds(60);
+    private static final Gson GSON = new Gson();
+    private static final ThreadLocal<ByteBuffer> COPY_BUFFER = new ThreadLocal<>();
+
+    private ModPackUpdater() {
+    }
+
+    public record InterruptedUpdate(List<RemoteMod> mods, UpdatePlan plan) {
+    }
+
+    public static UpdatePlan computeUpdatePlan(Path gameDirectory, List<String> modFilenames) {
+        UpdatePlan plan = new UpdatePlan();
+        Path modsDir = gameDirectory.resolve("mods");
+        for (String filename : modFilenames) {
+            Path modPath = modsDir.resolve(filename);
+            if (!Files.exists(modPath)) {
+                plan.getToAdd().add(filename);
+            }
+        }
+        collectRemovals(plan, modsDir, new HashSet<>(modFilenames));
+        return plan;
+    }
+
+    public static UpdatePlan computeVerifiedUpdatePlan(Path gameDirectory, Map<String, String> expectedHashes) {
+        List<RemoteMod> mods = new ArrayList<>(expectedHashes.size());
+        for (Map.Entry<String, String> e : expectedHashes.entrySet()) {
+            mods.add(new RemoteMod(e.getKey(), null, e.getValue(), -1));
+        }
+        return computeVerifiedUpdatePlan(gameDirectory, mods);
+    }
+
+    public static UpdatePlan computeVerifiedUpdatePlan(Path gameDirectory, List<RemoteMod> mods) {
+        UpdatePlan plan = new UpdatePlan();
+        Path modsDir = gameDirectory.resolve("mods");
+        List<Path> toVerify = new ArrayList<>();
+        for (RemoteMod mod : mods) {
+            Path modPath = modsDir.resolve(mod.filename());
+            if (mod.hasDigest() && Files.isRegularFile(modPath)) {
+                toVerify.add(modPath);
+            }
+        }
+        HashCache cache = HashCache.load(gameDirectory);
+        Map<Path, HashCache.Entry> localDigests = cache.digestAll(toVerify);
+        cache.save();
+        Set<String> filenames = new HashSet<>();
+        for (RemoteMod mod : mods) {
+            filenames.add(mod.filename());
+            Path modPath = modsDir.resolve(mod.filename());
+            if (!Files.isRegularFile(modPath)) {
+                plan.getToAdd().add(mod.filename());
+                continue;
+            }
+            if (!mod.hasDigest()) {
+                continue;
+            }
+            HashCache.Entry local = localDigests.get(modPath);
+            boolean matches = local != null && (mod.sha256() != null
+                    ? mod.sha256().equals(local.sha256())
+                    : mod.gitSha().equals(local.gitSha()));
+            if (!matches) {
+                LOGGER.info("Content of {} differs from remote, scheduling re-download", mod.filename());
+                plan.getToAdd().add(mod.filename());
+            }
+        }
+        collectRemovals(plan, modsDir, filenames);
+        return plan;
+    }
+
+    private static void collectRemovals(UpdatePlan plan, Path modsDir, Set<String> manifestFilenames) {
+        try {
+            try (var stream = Files.list(modsDir)) {
+                stream.filter(p -> {
+                    if (!Files.isRegularFile(p)) return false;
+                    String name = p.getFileName().toString();
+                    return name.toLowerCase().endsWith(".jar")
+                            && !name.toLowerCase().startsWith("automodpackupdater");
+                }).forEach(p -> {
+                    String name = p.getFileName().toString();
+                    if (!manifestFilenames.contains(name)) {
+                        plan.getToRemove().add(name);
+                    }
+                });
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to list mods folder", e);
+        }
+    }
+
+    public static Set<String> loadManagedMods(Path gameDirectory) {
+        return new HashSet<>(loadManagedState(gameDirectory).keySet());
+    }
+
+    static Map<String, HashCache.Entry> loadManagedState(Path gameDirectory) {
+        Path statePath = ConfigLoader.getConfigDirectory(gameDirectory).resolve(STATE_FILE);
+        Map<String, HashCache.Entry> result = new HashMap<>();
+        if (!Files.exists(statePath)) {
+            return result;
+        }
+        try {
+            JsonElement root = GSON.fromJson(Files.readString(statePath, StandardCharsets.UTF_8), JsonElement.class);
+            if (root != null && root.isJsonArray()) {
+                for (JsonElement el : root.getAsJsonArray()) {
+                    if (el.isJsonPrimitive()) {
+                        result.put(el.getAsString(), null);
+                    }
+                }
+            } else if (root != null && root.isJsonObject() && root.getAsJsonObject().has("mods")) {
+                for (Map.Entry<String, JsonElement> e : root.getAsJsonObject().getAsJsonObject("mods").entrySet()) {
+                    result.put(e.getKey(), e.getValue().isJsonObject()
+                            ? HashCache.parseEntry(e.getValue().getAsJsonObject()) : null);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Failed to load managed mods state", e);
+            result.clear();
+        }
+        return result;
+    }
+
+    public static void saveManagedMods(Path gameDirectory, Set<String> managed) {
+        saveManagedMods(gameDirectory, managed, HashCache.load(gameDirectory));
+    }
+
+    static void saveManagedMods(Path gameDirectory, Set<String> managed, HashCache hashCache) {
+        try {
+            Path configDir = ConfigLoader.getConfigDirectory(gameDirectory);
+            Files.createDirectories(configDir);
+            Path modsDir = gameDirectory.resolve("mods");
+            JsonObject mods = new JsonObject();
+            for (String s : managed) {
+                HashCache.Entry entry = hashCache.cached(modsDir.resolve(s));
+                mods.add(s, entry != null ? HashCache.toJson(entry) : new JsonObject());
+            }
+            JsonObject root = new JsonObject();
+            root.add("mods", mods);
+            writeAtomically(configDir.resolve(STATE_FILE), GSON.toJson(root));
+        } catch (IOException e) {
+            LOGGER.error("Failed to save managed mods state", e);
+        }
+    }
+
+    public static List<String> fetchModsFromFolder(String repositoryUrl) throws IOException {
+        return ModsFolderFetcher.fetchFromFolder(repositoryUrl);
+    }
+
+    public static List<RemoteMod> fetchRemoteMods(String repositoryUrl) throws IOException {
+        return fetchRemoteMods(repositoryUrl, null);
+    }
+
+    public static List<RemoteMod> fetchRemoteMods(String repositoryUrl, Path gameDirectory) throws IOException {
+        return fetchRemoteMods(repositoryUrl, gameDirectory, new UpdateReport(repositoryUrl));
+    }
+
+    public static List<RemoteMod> fetchRemoteMods(String repositoryUrl, Path gameDirectory, UpdateReport report)
+            throws IOException {
+        UpdaterEvents.FetchEvent event = new UpdaterEvents.FetchEvent();
+        event.url = repositoryUrl;
+        UpdateReport.Phase phase = report.network("fetch", event);
+        try {
+            List<String> mirrors = gameDirectory != null
+                    ? ConfigLoader.loadMirrors(gameDirectory, repositoryUrl)
+                    : List.of(repositoryUrl);
+            List<RemoteMod> mods = fetchFromMirrors(mirrors, gameDirectory, report.traffic());
+            event.mods = mods.size();
+            return mods;
+        } finally {
+            phase.end();
+        }
+    }
+
+    private static List<RemoteMod> fetchFromMirrors(List<String> mirrors, Path gameDirectory, TrafficStats traffic)
+            throws IOException {
+        for (int i = 0;; i++) {
+            try {
+                return fetchRemoteModsUntimed(mirrors.get(i), gameDirectory, traffic);
+            } catch (IOException e) {
+                if (i == mirrors.size() - 1 || isInterruption(e)) {
+                    throw e;
+                }
+                LOGGER.warn("Failed to list mods from {}, trying {}", mirrors.get(i),
+                        mirrors.get(i + 1), e);
+            }
+        }
+    }
+
+    static boolean isInterruption(IOException e) {
+        return e instanceof InterruptedIOException || e instanceof ClosedByInterruptException
+                || Thread.currentThread().isInterrupted();
+    }
+
+    private static List<RemoteMod> fetchRemoteModsUntimed(String repositoryUrl, Path gameDirectory,
+            TrafficStats traffic) throws IOException {
+        if (ManifestFetcher.isManifestUrl(repositoryUrl)) {
+            return ManifestFetcher.fetchManifest(repositoryUrl, traffic);
+        }
+        ResolvedRepo repo = ProviderRegistry.forGameDirectory(gameDirectory).resolve(repositoryUrl);
+        String baseUrl = modsBaseUrl(repo, repositoryUrl);
+        List<RemoteMod> mods = new ArrayList<>();
+        for (ModsFolderFetcher.ListedFile file : ModsFolderFetcher.fetchFromFolder(repo, gameDirectory, traffic)) {
+            mods.add(new RemoteMod(file.name(), resolveDownloadUrl(baseUrl, file.name()), null, file.size(),
+                    file.gitSha()));
+        }
+        return mods;
+    }
+
+    public static UpdatePlan planUpdate(Path gameDirectory, List<RemoteMod> mods) {
+        return planUpdate(gameDirectory, mods, new UpdateReport(null));
+    }
+
+    public static UpdatePlan planUpdate(Path gameDirectory, List<RemoteMod> mods, UpdateReport report) {
+        UpdaterEvents.PlanEvent event = new UpdaterEvents.PlanEvent();
+        UpdateReport.Phase phase = report.local("plan", event);
+        try {
+            UpdaterSettings settings = ConfigLoader.loadSettings(gameDirectory);
+            LanPeers.start(gameDirectory, settings);
+            UpdatePlan plan = settings.verifyHashes() && mods.stream().anyMatch(RemoteMod::hasDigest)
+                    ? computeVerifiedUpdatePlan(gameDirectory, mods)
+                    : computeUpdatePlan(gameDirectory, mods.stream().map(RemoteMod::filename).toList());
+            event.toAdd = plan.getToAdd().size();
+            event.toRemove = plan.getToRemove().size();
+            return plan;
+        } finally {
+            phase.end();
+        }
+    }
+
+    public static void prewarmHashCache(Path gameDirectory) {
+        Path modsDir = gameDirectory.resolve("mods");
+        if (!Files.isDirectory(modsDir)) {
+            return;
+        }
+        List<Path> jars;
+        try (var stream = Files.list(modsDir)) {
+            jars = stream.filter(p -> Files.isRegularFile(p) && p.getFileName().toString().toLowerCase().endsWith(".jar"))
+                    .toList();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to list mods folder", e);
+            return;
+        }
+        HashCache cache = HashCache.load(gameDirectory);
+        cache.digestAll(jars);
+        cache.save();
+    }
+
+    public static boolean startPeerSharing(Path gameDirectory) {
+        LanPeers lan = LanPeers.start(gameDirectory, ConfigLoader.loadSettings(gameDirectory));
+        if (lan == null) {
+            return false;
+        }
+        HashCache hashCache = HashCache.load(gameDirectory);
+        lan.shareInstalled(gameDirectory, hashCache);
+        hashCache.save();
+        return true;
+    }
+
+    public static String getBaseUrlForDownloads(String repositoryUrl) {
+        return modsBaseUrl(ProviderRegistry.DEFAULT.resolve(repositoryUrl), repositoryUrl);
+    }
+
+    private static List<String> mirrorBases(Path gameDirectory) {
+        ProviderRegistry registry = ProviderRegistry.forGameDirectory(gameDirectory);
+        List<String> bases = new ArrayList<>();
+        for (String url : ConfigLoader.loadRepositoryUrls(gameDirectory)) {
+            String base = ManifestFetcher.isManifestUrl(url)
+                    ? url.substring(0, url.lastIndexOf('/') + 1)
+                    : modsBaseUrl(registry.resolve(url), url);
+            if (!bases.contains(base)) {
+                bases.add(base);
+            }
+        }
+        return bases;
+    }
+
+    private static String modsBaseUrl(ResolvedRepo repo, String repositoryUrl) {
+        if (repo != null) {
+            return repo.rawBaseUrl() + "mods/";
+        }
+        String base = repositoryUrl.endsWith("/") ? repositoryUrl : repositoryUrl + "/";
+        return base.endsWith("mods/") ? base : base + "mods/";
+    }
+
+    public static void downloadMod(String baseUrl, String filename, Path modsDir) throws IOException {
+        downloadMod(baseUrl, filename, modsDir, null);
+    }
+
+    public static void downloadMod(String baseUrl, String filename, Path modsDir,
+            BytesProgressReporter bytesReporter) throws IOException {
+        Files.createDirectories(modsDir);
+        downloadFile(new DownloadTask(filename, resolveDownloadUrl(baseUrl, filename), -1, null, null),
+                modsDir.resolve(filename), DownloadContext.NONE, ProgressTracker.Slot.reporting(bytesReporter));
+    }
+
+    static String resolveDownloadUrl(String baseUrl, String filename) {
+        return baseUrl.endsWith("/") ? baseUrl + filename : baseUrl + "/" + filename;
+    }
+
+    static void downloadFile(DownloadTask task, Path target, DownloadContext context, ProgressTracker.Slot slot)
+            throws IOException {
+        if (context.shared() != null) {
+            context.shared().download(task, target, context, () -> fetchFile(task, target, context, slot));
+        } else {
+            fetchFile(task, target, context, slot);
+        }
+    }
+
+    private static void fetchFile(DownloadTask task, Path target, DownloadContext context, ProgressTracker.Slot slot)
+            throws IOException {
+        long expectedSize = task.expectedSize();
+        String expectedSha256 = task.expectedSha256();
+        HashCache hashCache = context.hashCache();
+        JarStore jarStore = context.jarStore();
+        UpdaterEvents.DownloadEvent event = new UpdaterEvents.DownloadEvent();
+        event.filename = task.filename();
+        event.host = task.host();
+        long start = System.nanoTime();
+        event.begin();
+        HashCache.Entry stored = jarStore != null
+                ? jarStore.placeInto(expectedSha256, task.expectedGitSha(), expectedSize, target, context.hashCache())
+                : null;
+        if (stored != null) {
+            if (hashCache != null) {
+                hashCache.record(target, stored.sha256(), stored.gitSha());
+            }
+            if (context.peers() != null) {
+                context.peers().share(target, stored.sha256(), stored.gitSha());
+            }
+            event.source = "store";
+            completeDownload(event, start, context.report());
+            return;
+        }
+        Path part = target.resolveSibling(target.getFileName() + PART_SUFFIX);
+        HashCache.Entry digests = context.peers() != null ? context.peers().fetch(task, part, context, slot) : null;
+        if (digests != null) {
+            event.source = "peer";
+            event.bytes = digests.size();
+        } else {
+            digests = fetchFromOrigin(task, part, context, slot, event);
+        }
+        moveIntoPlace(part, target);
+        Files.deleteIfExists(validatorPath(part));
+        if (digests != null && hashCache != null) {
+            hashCache.record(target, digests.sha256(), digests.gitSha());
+        }
+        if (digests != null && jarStore != null) {
+            jarStore.add(target, digests.sha256(), digests.gitSha());
+        }
+        if (digests != null && context.peers() != null) {
+            context.peers().share(target, digests.sha256(), digests.gitSha());
+        }
+        completeDownload(event, start, context.report());
+    }
+
+    private static HashCache.Entry fetchFromOrigin(DownloadTask task, Path part, DownloadContext context,
+            ProgressTracker.Slot slot, UpdaterEvents.DownloadEvent event) throws IOException {
+        long expectedSize = task.expectedSize();
+        long existing = Files.isRegularFile(part) ? Files.size(part) : 0;
+        if (expectedSize >= 0 && existing > expectedSize) {
+            Files.delete(part);
+            existing = 0;
+        }
+        event.source = existing > 0 ? "resumed" : "network";
+        MirrorSelector mirrors = context.mirrors();
+        List<String> sources = mirrors != null ? mirrors.sources(task) : List.of(task.url());
+        for (int i = 0;; i++) {
+            String source = sources.get(i);
+            event.host = DownloadTask.hostOf(source);
+            Transfer transfer = null;
+            try {
+                if (expectedSize < 0 || existing < expectedSize) {
+                    String alternate = i + 1 < sources.size() ? sources.get(i + 1) : source;
+                    transfer = transferToPart(source, alternate, part, existing, task.hasDigest() || expectedSize >= 0,
+                            context, slot, event);
+                }
+                HashCache.Entry digests = verifyDownload(part, expectedSize, task.expectedSha256(),
+                        task.expectedGitSha(), transfer != null ? transfer.digest() : null);
+                if (transfer != null) {
+                    if (mirrors != null) {
+                        mirrors.succeeded(transfer.url(), transfer.ttfbNanos(), transfer.bytes(),
+                                transfer.durationNanos());
+                    }
+                    if (context.hedging() != null) {
+                        context.hedging().record(transfer.ttfbNanos(), transfer.bytes(),
+                                transfer.durationNanos() - transfer.ttfbNanos());
+                    }
+                }
+                return digests;
+            } catch (IOException e) {
+                if (mirrors == null || i == sources.size() - 1 || isInterruption(e)) {
+                    throw e;
+                }
+                mirrors.failed(transfer != null ? transfer.url() : source);
+                if (context.concurrency() != null) {
+                    context.concurrency().onError();
+                }
+                LOGGER.warn("Download of {} from {} failed, falling back to {}", task.filename(),
+                        source, sources.get(i + 1), e);
+                existing = Files.isRegularFile(part) ? Files.size(part) : 0;
+            }
+        }
+    }
+
+    private static Path hedgeSpillPath(Path part) {
+        String name = part.getFileName().toString();
+        return part.resolveSibling(name.substring(0, name.length() - PART_SUFFIX.length()) + HEDGE_SUFFIX + PART_SUFFIX);
+    }
+
+    static void writeAtomically(Path target, String content) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            moveIntoPlace(tmp, target);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    static void moveIntoPlace(Path part, Path target) throws IOException {
+        try {
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static void completeDownload(UpdaterEvents.DownloadEvent event, long start, UpdateReport report) {
+        event.commit();
+        if (report != null) {
+            report.recordDownload(event, System.nanoTime() - start);
+        }
+    }
+
+    private record Transfer(DownloadDigest digest, String url, long ttfbNanos, long bytes, long durationNanos) {
+    }
+
+    private static Transfer transferToPart(String url, String alternate, Path part, long existing,
+            boolean verifiable, DownloadContext context, ProgressTracker.Slot slot, UpdaterEvents.DownloadEvent event)
+            throws IOException {
+        String validator = existing > 0 ? readValidator(part) : null;
+        long resumeFrom = validator != null ? existing : 0;
+        Function<String, HttpRequest> request = target -> {
+            HttpRequest.Builder builder = HttpTransport.request(target, RESPONSE_TIMEOUT);
+            if (resumeFrom > 0) {
+                builder.header("Range", "bytes=" + resumeFrom + "-").header("If-Range", validator);
+            }
+            return builder.build();
+        };
+        HedgePolicy hedging = context.hedging();
+        TrafficStats traffic = context.traffic();
+        long requestStart = System.nanoTime();
+        HedgePolicy.Response sent = hedging != null
+                ? hedging.send(url, alternate, request, traffic)
+                : new HedgePolicy.Response(HttpTransport.send(request.apply(url), traffic), url, requestStart, false,
+                        null, null);
+        HttpResponse<InputStream> response = sent.response();
+        boolean hedged = sent.hedged();
+        long responded = System.nanoTime();
+        event.timeToFirstByte = responded - requestStart;
+        MirrorSelector mirrors = context.mirrors();
+        if (mirrors != null && sent.slow() != null && !sent.slow().equals(sent.url())) {
+            mirrors.slow(sent.slow(), responded - requestStart, 0, responded - requestStart);
+        }
+        if (mirrors != null && sent.failed() != null && !sent.failed().equals(sent.url())) {
+            mirrors.failed(sent.failed());
+        }
+        String deliveredBy = sent.url();
+        String hedgeTo = deliveredBy.equals(url) ? alternate : url;
+        long ttfbNanos = responded - sent.startNanos();
+        long deliveredFrom = sent.startNanos();
+        int code = response.statusCode();
+        try (InputStream in = HttpTransport.body(response, READ_TIMEOUT, traffic)) {
+            boolean append;
+            if (code == HTTP_PARTIAL && resumeFrom > 0 && rangeStartsAt(response, resumeFrom)) {
+                append = true;
+                LOGGER.info("Resuming {} at byte {}", part.getFileName(), resumeFrom);
+            } else if (code == HTTP_OK) {
+                append = false;
+            } else if (code == HTTP_PARTIAL) {
+                Files.deleteIfExists(part);
+                throw new IOException("Unexpected Content-Range for " + url + ", restarting on next attempt");
+            } else if (code == HTTP_RANGE_NOT_SATISFIABLE && resumeFrom > 0 && verifiable) {
+                return null;
+            } else if (code == HTTP_RANGE_NOT_SATISFIABLE && resumeFrom > 0) {
+                in.close();
+                LOGGER.info("Restarting {}: the server reports it complete but there is no size or hash to check",
+                        part.getFileName());
+                Files.deleteIfExists(part);
+                Files.deleteIfExists(validatorPath(part));
+                return transferToPart(url, alternate, part, 0, false, context, slot, event);
+            } else {
+                throw new IOException("HTTP " + code + " for " + url);
+            }
+            if (existing > 0 && !append) {
+                LOGGER.info("Restarting {}: the remote file changed or cannot be resumed", part.getFileName());
+            }
+            writeValidator(part, response);
+            long contentLength = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+            long startOffset = append ? resumeFrom : 0;
+            long totalBytes = contentLength >= 0 ? startOffset + contentLength : 0;
+            long declaredSize = contentLength >= 0 ? totalBytes : -1;
+            DownloadDigest digest = append ? DownloadDigest.resume(part, existing, declaredSize)
+                    : DownloadDigest.start(declaredSize);
+            OpenOption[] options = append
+                    ? new OpenOption[] { StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND }
+                    : new OpenOption[] { StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                            StandardOpenOption.TRUNCATE_EXISTING };
+            long bytesDownloaded;
+            long deliveredStart = startOffset;
+            try (ReadableByteChannel source = Channels.newChannel(in);
+                    FileChannel out = FileChannel.open(part, options);
+                    TransferProgress progress = TransferProgress.start(startOffset, totalBytes, slot.reporter());
+                    HedgePolicy.SlowTransferWatch watch = hedging != null
+                            ? hedging.watch(hedgeTo, hedgeTo.equals(deliveredBy), progress, in,
+                                    validatorOf(response), traffic, hedgeSpillPath(part))
+                            : null) {
+                slot.attach(progress);
+                try {
+                    copy(source, out, progress, context.minBufferSize(), context.maxBufferSize(),
+                            context.bandwidth(), digest, context.received());
+                } catch (IOException e) {
+                    InputStream takeover = watch != null && !isInterruption(e) ? watch.takeOver() : null;
+                    if (takeover == null) {
+                        throw e;
+                    }
+                    hedged = true;
+                    long takeoverBytes = progress.bytes();
+                    if (mirrors != null && !hedgeTo.equals(deliveredBy)) {
+                        mirrors.slow(deliveredBy, ttfbNanos, takeoverBytes - startOffset,
+                                System.nanoTime() - deliveredFrom);
+                    }
+                    deliveredBy = hedgeTo;
+                    ttfbNanos = watch.hedgeTtfbNanos();
+                    deliveredFrom = watch.hedgeStartNanos();
+                    deliveredStart = takeoverBytes;
+                    try (InputStream hedgeIn = takeover) {
+                        hedgeIn.skipNBytes(progress.bytes() - watch.offset());
+                        copy(Channels.newChannel(hedgeIn), out, progress, context.minBufferSize(),
+                                context.maxBufferSize(), context.bandwidth(), digest, context.received());
+                    }
+                }
+                bytesDownloaded = progress.bytes();
+            }
+            event.bytes = bytesDownloaded - startOffset;
+            if (hedged) {
+                event.source = "hedged";
+            } else if (!append) {
+                event.source = "network";
+            }
+            if (totalBytes > 0 && bytesDownloaded != totalBytes) {
+                throw new IOException("Download of " + url + " ended after " + bytesDownloaded + " of " + totalBytes
+                        + " bytes");
+            }
+            return new Transfer(digest, deliveredBy, ttfbNanos, bytesDownloaded - deliveredStart,
+                    System.nanoTime() - deliveredFrom);
+        }
+    }
+
+    static void copy(ReadableByteChannel source, FileChannel out, TransferProgress progress, int minBufferSize,
+            int maxBufferSize, BandwidthLimiter limiter, DownloadDigest digest, LongAdder received)
+            throws IOException {
+        int maxChunk = limiter != null ? limiter.chunkSize(maxBufferSize) : maxBufferSize;
+        ByteBuffer buffer = COPY_BUFFER.get();
+        if (buffer == null || buffer.capacity() < maxChunk) {
+            buffer = ByteBuffer.allocateDirect(maxChunk);
+            COPY_BUFFER.set(buffer);
+        }
+        int window = Math.min(minBufferSize, maxChunk);
+        buffer.clear().limit(window);
+        int n;
+        while ((n = source.read(buffer)) != -1) {
+            if (n == 0 && buffer.hasRemaining()) {
+                continue;
+            }
+            if (limiter != null) {
+                limiter.acquire(n);
+            }
+            boolean filled = !buffer.hasRemaining();
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            if (digest != null) {
+                buffer.rewind();
+                digest.update(buffer);
+            }
+            progress.add(n);
+            if (received != null) {
+                received.add(n);
+            }
+            if (filled && window < maxChunk) {
+                window = Math.min(maxChunk, window * 2);
+            }
+            buffer.clear().limit(window);
+        }
+    }
+
+    static String validatorOf(HttpResponse<?> response) {
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return response.headers().firstValue("Last-Modified").orElse(null);
+    }
+
+    private static Path validatorPath(Path part) {
+        return part.resolveSibling(part.getFileName() + VALIDATOR_SUFFIX);
+    }
+
+    private static String readValidator(Path part) {
+        try {
+            String validator = Files.readString(validatorPath(part), StandardCharsets.UTF_8).trim();
+            return validator.isEmpty() ? null : validator;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeValidator(Path part, HttpResponse<?> response) throws IOException {
+        String validator = validatorOf(response);
+        if (validator != null) {
+            Files.writeString(validatorPath(part), validator, StandardCharsets.UTF_8);
+        } else {
+            Files.deleteIfExists(validatorPath(part));
+        }
+    }
+
+    static boolean rangeStartsAt(HttpResponse<?> response, long offset) {
+        String contentRange = response.headers().firstValue("Content-Range").orElse(null);
+        return contentRange != null && contentRange.trim().startsWith("bytes " + offset + "-");
+    }
+
+    public static void removeMod(Path modsDir, String filename) throws IOException {
+        Path target = modsDir.resolve(filename);
+        if (Files.exists(target)) {
+            Files.delete(target);
+        }
+    }
+
+    public static Optional<InterruptedUpdate> recoverInterruptedUpdate(Path gameDirectory) {
+        UpdateJournal.Pending pending = UpdateJournal.read(gameDirectory);
+        if (pending == null) {
+            return Optional.empty();
+        }
+        Path modsDir = gameDirectory.resolve("mods");
+        HashCache hashCache = HashCache.load(gameDirectory);
+        Set<String> managed = new HashSet<>(loadManagedMods(gameDirectory));
+        UpdatePlan remaining = new UpdatePlan();
+        remaining.setPackSize(pending.packSize());
+        for (String filename : pending.remove()) {
+            if (pending.removed().contains(filename) || !Files.exists(modsDir.resolve(filename))) {
+                managed.remove(filename);
+            } else {
+                remaining.getToRemove().add(filename);
+            }
+        }
+        for (RemoteMod mod : pending.install()) {
+            if (pending.installed().contains(mod.filename())
+                    || isInstalled(modsDir.resolve(mod.filename()), mod, hashCache)) {
+                managed.add(mod.filename());
+            } else {
+                remaining.getToAdd().add(mod.filename());
+            }
+        }
+        hashCache.save();
+        saveManagedMods(gameDirectory, managed, hashCache);
+        if (!remaining.hasChanges()) {
+            UpdateJournal.discard(gameDirectory);
+            return Optional.empty();
+        }
+        LOGGER.info("Resuming interrupted update: {} to add, {} to remove",
+                remaining.getToAdd().size(), remaining.getToRemove().size());
+        return Optional.of(new InterruptedUpdate(pending.install(), remaining));
+    }
+
+    private static boolean isInstalled(Path file, RemoteMod mod, HashCache hashCache) {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        if (!mod.hasDigest()) {
+            return true;
+        }
+        try {
+            HashCache.Entry local = hashCache.digests(file);
+            return mod.sha256() != null ? mod.sha256().equals(local.sha256()) : mod.gitSha().equals(local.gitSha());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static void executePlan(Path gameDirectory, String repositoryUrl, List<String> modFilenames, UpdatePlan plan)
+            throws IOException {
+        executePlan(gameDirectory, repositoryUrl, modFilenames, plan, null);
+    }
+
+    public static void executePlan(Path gameDirectory, String repositoryUrl, List<String> modFilenames, UpdatePlan plan,
+            ProgressTracker tracker) throws IOException {
+        String baseUrl = modsBaseUrl(ProviderRegistry.forGameDirectory(gameDirectory).resolve(repositoryUrl),
+                repositoryUrl);
+        List<RemoteMod> mods = new ArrayList<>();
+        for (String filename : modFilenames) {
+            mods.add(new RemoteMod(filename, resolveDownloadUrl(baseUrl, filename)));
+        }
+        installPlan(gameDirectory, mods, plan, tracker);
+    }
+
+    public static void installPlan(Path gameDirectory, List<RemoteMod> mods, UpdatePlan plan,
+            ProgressTracker tracker) throws IOException {
+        installPlan(gameDirectory, mods, plan, tracker, new UpdateReport(null));
+    }
+
+    public static void installPlan(Path gameDirectory, List<RemoteMod> mods, UpdatePlan plan,
+            ProgressTracker tracker, UpdateReport report) throws IOException {
+        installPlan(gameDirectory, mods, plan, tracker, report, null);
+    }
+
+    static void installPlan(Path gameDirectory, List<RemoteMod> mods, UpdatePlan plan, ProgressTracker tracker,
+            UpdateReport report, SharedDownloads shared) throws IOException {
+        Path modsDir = gameDirectory.resolve("mods");
+        Set<String> managed = new HashSet<>(loadManagedMods(gameDirectory));
+        Map<String, RemoteMod> modsByName = new HashMap<>();
+        for (RemoteMod mod : mods) {
+            modsByName.put(mod.filename(), mod);
+        }
+        List<RemoteMod> toInstall = new ArrayList<>();
+        List<DownloadTask> tasks = new ArrayList<>();
+        for (String filename : plan.getToAdd()) {
+            RemoteMod mod = modsByName.get(filename);
+            if (mod != null) {
+                toInstall.add(mod);
+                tasks.add(new DownloadTask(filename, mod.url(), mod.size(), mod.sha256(), mod.gitSha()));
+            }
+        }
+        int packSize = plan.getPackSize() >= 0 ? plan.getPackSize() : modsByName.size();
+        try (UpdateJournal journal = UpdateJournal.begin(gameDirectory, toInstall, plan.getToRemove(), packSize)) {
+            runPlan(gameDirectory, modsDir, managed, modsByName.keySet(), packSize, plan, tasks, tracker, report,
+                    journal, shared);
+        }
+    }
+
+    private static void runPlan(Path gameDirectory, Path modsDir, Set<String> managed, Set<String> wanted,
+            int packSize, UpdatePlan plan, List<DownloadTask> tasks, ProgressTracker tracker, UpdateReport report,
+            UpdateJournal journal, SharedDownloads shared) throws IOException {
+        List<String> removed = Collections.synchronizedList(new ArrayList<>());
+        AtomicReference<IOException> removalFailure = new AtomicReference<>();
+        if (tracker != null) {
+            tracker.startRemovals(plan.getToRemove().size());
+        }
+        Thread removal = Thread.ofVirtual().name("AutoModPackUpdater-Remove").start(() -> {
+            UpdaterEvents.RemoveEvent event = new UpdaterEvents.RemoveEvent();
+            UpdateReport.Phase removePhase = report.local("remove", event);
+            try {
+                for (String filename : plan.getToRemove()) {
+                    try {
+                        removeMod(modsDir, filename);
+                        removed.add(filename);
+                        journal.removed(filename);
+                        if (tracker != null) {
+                            tracker.fileRemoved();
+                        }
+                    } catch (IOException e) {
+                        LOGGER.error("Failed to remove {}", filename, e);
+                        removalFailure.compareAndSet(null, e);
+                    }
+                }
+                event.removed = removed.size();
+            } finally {
+                removePhase.end();
+            }
+        });
+        Files.createDirectories(modsDir);
+        UpdaterSettings settings = ConfigLoader.loadSettings(gameDirectory);
+        DownloadScheduler scheduler = new DownloadScheduler(settings.maxConcurrentDownloads(),
+                settings.maxDownloadsPerHost());
+        HashCache hashCache = HashCache.load(gameDirectory);
+        List<String> bases = mirrorBases(gameDirectory);
+        MirrorSelector mirrors = MirrorSelector.load(gameDirectory, bases);
+        DownloadContext context = new DownloadContext(hashCache, JarStore.fromSettings(settings),
+                settings.minBufferSize(), settings.maxBufferSize(), report, journal, mirrors,
+                HedgePolicy.fromSettings(settings), AdaptiveConcurrency.fromSettings(settings),
+                BandwidthLimiter.fromSettings(settings), shared, LanPeers.start(gameDirectory, settings),
+                new LongAdder());
+        UpdaterEvents.DownloadAllEvent downloadEvent = new UpdaterEvents.DownloadAllEvent();
+        DownloadScheduler.Result result;
+        Set<String> bundled = Set.of();
+        UpdateReport.Phase downloadPhase = report.network("download", downloadEvent);
+        try {
+            ProgressTracker progress = tracker != null ? tracker : new ProgressTracker();
+            List<DownloadTask> remaining = tasks;
+            if (shared == null && context.peers() == null && !bases.isEmpty()
+                    && PackBundle.worthwhile(settings, tasks.size(), packSize)) {
+                bundled = PackBundle.install(PackBundle.urlFor(bases.get(0)), modsDir, tasks, context, progress);
+                Set<String> done = bundled;
+                remaining = tasks.stream().filter(t -> !done.contains(t.filename())).toList();
+            }
+            if (mirrors != null && !remaining.isEmpty()) {
+                mirrors.probe(remaining.get(0), context.traffic());
+            }
+            result = scheduler.downloadAll(remaining, modsDir, context, progress);
+            downloadEvent.files = bundled.size() + result.completed().size();
+        } finally {
+            downloadPhase.end();
+        }
+        boolean interrupted = false;
+        while (removal.isAlive()) {
+            try {
+                removal.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        removeStaleParts(modsDir, wanted);
+        synchronized (removed) {
+            managed.removeAll(removed);
+        }
+        managed.addAll(bundled);
+        managed.addAll(result.completed());
+        UpdateReport.Phase savePhase = report.local("saveState", new UpdaterEvents.SaveStateEvent());
+        try {
+            hashCache.save();
+            if (mirrors != null) {
+                mirrors.save();
+            }
+            saveManagedMods(gameDirectory, managed, hashCache);
+            if (!Thread.currentThread().isInterrupted()) {
+                journal.commit();
+            }
+        } finally {
+            savePhase.end();
+        }
+        if (result.failure() != null) {
+            throw result.failure();
+        }
+        if (removalFailure.get() != null) {
+            throw removalFailure.get();
+        }
+    }
+
+    private static void removeStaleParts(Path modsDir, Set<String> wanted) {
+        try (var stream = Files.list(modsDir)) {
+            for (Path p : stream.toList()) {
+                String name = p.getFileName().toString();
+                if (name.endsWith(PART_SUFFIX + VALIDATOR_SUFFIX)) {
+                    name = name.substring(0, name.length() - VALIDATOR_SUFFIX.length());
+                }
+                if (name.endsWith(PART_SUFFIX)
+                        && !wanted.contains(name.substring(0, name.length() - PART_SUFFIX.length()))) {
+                    Files.deleteIfExists(p);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to clean up partial downloads", e);
+        }
+    }
+
+    static HashCache.Entry verifyDownload(Path file, long expectedSize, String expectedSha256, String expectedGitSha,
+            DownloadDigest digest) throws IOException {
+        long size = Files.size(file);
+        if (expectedSize >= 0 && size != expectedSize) {
+            Files.deleteIfExists(file);
+            throw new IOException("Size mismatch for " + file.getFileName() + ": expected " + expectedSize
+                    + " bytes, got " + size);
+        }
+        HashCache.Entry actual = digest != null ? digest.result(size) : null;
+        if (expectedSha256 == null && expectedGitSha == null) {
+            return actual;
+        }
+        if (actual == null || (expectedSha256 == null && actual.gitSha() == null)) {
+            actual = HashCache.computeDigests(file, size, 0);
+        }
+        if (expectedSha256 != null && !expectedSha256.equals(actual.sha256())) {
+            Files.deleteIfExists(file);
+            throw new IOException("Hash mismatch for " + file.getFileName() + ": expected sha256:"
+                    + expectedSha256 + ", got sha256:" + actual.sha256());
+        }
+        if (expectedSha256 == null && !expectedGitSha.equals(actual.gitSha())) {
+            Files.deleteIfExists(file);
+            throw new IOException("Hash mismatch for " + file.getFileName() + ": expected git blob "
+                    + expectedGitSha + ", got " + actual.gitSha());
+        }
+        return actual;
+    }
+}
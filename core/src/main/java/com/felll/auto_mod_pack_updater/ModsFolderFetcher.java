@@ -0,0 +1,387 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+public final class ModsFolderFetcher {
+
+    private static final int HTTP_NOT_MODIFIED = 304;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final Pattern LINK_NEXT = Pattern.compile("<([^>]+)>\\s*;[^,]*rel=\"?next\"?");
+    private static final Pattern LINK_LAST = Pattern.compile("<([^>]+)>\\s*;[^,]*rel=\"?last\"?");
+    private static final Pattern PAGE_PARAM = Pattern.compile("[?&]page=(\\d+)");
+
+    private ModsFolderFetcher() {
+    }
+
+    @FunctionalInterface
+    interface BodyReader<T> {
+        T read(InputStream in) throws IOException;
+    }
+
+    record ListedFile(String name, String gitSha, long size) {
+    }
+
+    record TreePage(List<ListedFile> files, boolean truncated, int page, int totalPages) {
+    }
+
+    record HttpResult<T>(int code, T body, String etag, String lastModified, String nextUrl, int totalPages) {
+        boolean notModified() {
+            return code == HTTP_NOT_MODIFIED;
+        }
+    }
+
+    public static List<String> fetchFromFolder(String repositoryUrl) throws IOException {
+        return fetchFromFolder(repositoryUrl, null);
+    }
+
+    public static List<String> fetchFromFolder(String repositoryUrl, Path gameDirectory) throws IOException {
+        ResolvedRepo repo = ProviderRegistry.forGameDirectory(gameDirectory).resolve(repositoryUrl);
+        return fetchFromFolder(repo, gameDirectory, null).stream().map(ListedFile::name).toList();
+    }
+
+    static List<ListedFile> fetchFromFolder(ResolvedRepo repo, Path gameDirectory, TrafficStats traffic)
+            throws IOException {
+        if (repo == null || !repo.hasListing()) {
+            throw new IOException("Unsupported repository URL. Use GitHub, GitLab, Gitea, or Codeberg, and list self-hosted "
+                    + "instances under providers.*.hosts in settings.properties.");
+        }
+        ListingCache cache = gameDirectory != null ? ListingCache.load(gameDirectory) : null;
+        List<ListedFile> mods = fetchListing(repo.listingUrl(), repo.listingAccept(), repo.modsPath(), cache,
+                traffic);
+        if (cache != null) {
+            cache.save();
+        }
+        return mods;
+    }
+
+    private static List<ListedFile> fetchListing(String firstPageUrl, String accept, String modsPath,
+            ListingCache cache, TrafficStats traffic) throws IOException {
+        List<ListedFile> mods = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        Map<String, CompletableFuture<HttpResponse<InputStream>>> prefetched = new HashMap<>();
+        List<String> pageOrder = null;
+        String url = firstPageUrl;
+        try {
+            while (url != null && visited.add(url)) {
+                ListingCache.Entry cached = cache != null ? cache.get(url) : null;
+                CompletableFuture<HttpResponse<InputStream>> inFlight = prefetched.remove(url);
+                HttpResponse<InputStream> response = inFlight != null ? await(inFlight, url)
+                        : HttpTransport.send(listingRequest(url, accept, cached), traffic);
+                HttpResult<TreePage> result = readResult(url, response, cached, traffic,
+                        in -> parseTree(in, modsPath));
+                int totalPages = Math.max(result.totalPages(), result.body() != null ? result.body().totalPages() : 0);
+                if (pageOrder == null && totalPages > 1) {
+                    pageOrder = new ArrayList<>();
+                    for (int p = 2; p <= totalPages; p++) {
+                        String pageUrl = withPage(firstPageUrl, p);
+                        pageOrder.add(pageUrl);
+                        prefetched.put(pageUrl, HttpTransport.sendStreaming(
+                                listingRequest(pageUrl, accept, cache != null ? cache.get(pageUrl) : null), false,
+                                traffic));
+                    }
+                }
+                String next = readPage(url, result, cached, cache, mods, totalPages);
+                url = pageOrder != null ? nextInOrder(pageOrder, visited) : next;
+            }
+        } finally {
+            for (CompletableFuture<HttpResponse<InputStream>> pending : prefetched.values()) {
+                if (!pending.cancel(true)) {
+                    pending.thenAccept(ModsFolderFetcher::discard);
+                }
+            }
+        }
+        return mods;
+    }
+
+    private static String readPage(String url, HttpResult<TreePage> result, ListingCache.Entry cached,
+            ListingCache cache, List<ListedFile> mods, int totalPages) {
+        if (result.notModified() && cached != null) {
+            ModPackUpdater.LOGGER.debug("Listing not modified, using cached result for {}", url);
+            for (JsonElement el : cached.items()) {
+                JsonObject obj = el.getAsJsonObject();
+                mods.add(new ListedFile(obj.get("name").getAsString(),
+                        obj.has("sha") ? obj.get("sha").getAsString() : null,
+                        obj.has("size") ? obj.get("size").getAsLong() : -1));
+            }
+            return cached.next();
+        }
+        TreePage page = result.body();
+        mods.addAll(page.files());
+        String next = result.nextUrl();
+        if (next == null && page.truncated()) {
+            if (page.page() > 0) {
+                next = withPage(url, page.page() + 1);
+            } else {
+                ModPackUpdater.LOGGER.warn("Tree listing for {} was truncated, some mods may be missing", url);
+            }
+        }
+        if (cache != null) {
+            JsonArray items = new JsonArray(page.files().size());
+            for (ListedFile file : page.files()) {
+                JsonObject obj = new JsonObject();
+                obj.addProperty("name", file.name());
+                if (file.gitSha() != null) {
+                    obj.addProperty("sha", file.gitSha());
+                }
+                if (file.size() >= 0) {
+                    obj.addProperty("size", file.size());
+                }
+                items.add(obj);
+            }
+            cache.put(url, new ListingCache.Entry(result.etag(), result.lastModified(), items, next,
+                    totalPages));
+        }
+        return next;
+    }
+
+    private static String nextInOrder(List<String> pageOrder, Set<String> visited) {
+        for (String pageUrl : pageOrder) {
+            if (!visited.contains(pageUrl)) {
+                return pageUrl;
+            }
+        }
+        return null;
+    }
+
+    private static HttpResponse<InputStream> await(CompletableFuture<HttpResponse<InputStream>> inFlight, String url)
+            throws IOException {
+        try {
+            return inFlight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Listing request to " + url + " interrupted");
+        } catch (ExecutionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw cause instanceof IOException io ? io : new IOException("Listing request to " + url + " failed", cause);
+        }
+    }
+
+    private static void discard(HttpResponse<InputStream> response) {
+        try {
+            response.body().close();
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.debug("Failed to close unused listing response", e);
+        }
+    }
+
+    static TreePage parseTree(InputStream in, String modsPath) throws IOException {
+        String prefix = modsPath + "/";
+        JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<ListedFile> files = new ArrayList<>();
+        if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+            readTreeEntries(reader, prefix, files);
+            return new TreePage(files, false, 0, 0);
+        }
+        boolean sawTree = false;
+        boolean truncated = false;
+        int page = 0;
+        int entries = 0;
+        long totalCount = 0;
+        String message = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "tree" -> {
+                    entries = readTreeEntries(reader, prefix, files);
+                    sawTree = true;
+                }
+                case "truncated" -> truncated = nextBoolean(reader);
+                case "page" -> page = (int) nextLong(reader, 0);
+                case "total_count" -> totalCount = nextLong(reader, 0);
+                case "message" -> message = nextString(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (!sawTree && message != null) {
+            throw new IOException("mods/ folder not found: " + message);
+        }
+        int totalPages = truncated && page > 0 && entries > 0 && totalCount > entries
+                ? (int) ((totalCount + entries - 1) / entries) : 0;
+        return new TreePage(files, truncated, page, totalPages);
+    }
+
+    private static int readTreeEntries(JsonReader reader, String prefix, List<ListedFile> files) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return 0;
+        }
+        int entries = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            entries++;
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            String type = null;
+            String path = null;
+            String sha = null;
+            long size = -1;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "type" -> type = nextString(reader);
+                    case "path" -> path = nextString(reader);
+                    case "sha", "id" -> sha = nextString(reader);
+                    case "size" -> size = nextLong(reader, -1);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (!"blob".equals(type) || path == null || !path.startsWith(prefix)) {
+                continue;
+            }
+            String name = path.substring(prefix.length());
+            if (name.indexOf('/') < 0 && name.toLowerCase(Locale.ROOT).endsWith(".jar")) {
+                files.add(new ListedFile(name, HashCache.normalizeGitSha(sha), size));
+            }
+        }
+        reader.endArray();
+        return entries;
+    }
+
+    static String withPage(String url, int page) {
+        String stripped = url.replaceAll("([?&])page=\\d+&?", "$1").replaceAll("[?&]$", "");
+        return stripped + (stripped.contains("?") ? "&" : "?") + "page=" + page;
+    }
+
+    private static String nextString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return reader.nextString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    private static long nextLong(JsonReader reader, long fallback) throws IOException {
+        if (reader.peek() == JsonToken.NUMBER) {
+            return reader.nextLong();
+        }
+        reader.skipValue();
+        return fallback;
+    }
+
+    private static boolean nextBoolean(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.BOOLEAN) {
+            return reader.nextBoolean();
+        }
+        reader.skipValue();
+        return false;
+    }
+
+    static String fetchUrl(String urlString, String accept) throws IOException {
+        return fetchUrl(urlString, accept, null, null,
+                in -> new String(in.readAllBytes(), StandardCharsets.UTF_8)).body();
+    }
+
+    static <T> HttpResult<T> fetchUrl(String urlString, String accept, ListingCache.Entry cached,
+            TrafficStats traffic, BodyReader<T> bodyReader) throws IOException {
+        return readResult(urlString, HttpTransport.send(listingRequest(urlString, accept, cached), traffic), cached,
+                traffic, bodyReader);
+    }
+
+    private static HttpRequest listingRequest(String urlString, String accept, ListingCache.Entry cached) {
+        HttpRequest.Builder request = HttpTransport.request(urlString, REQUEST_TIMEOUT)
+                .header("Accept", accept);
+        if (cached != null) {
+            if (cached.etag() != null) {
+                request.header("If-None-Match", cached.etag());
+            }
+            if (cached.lastModified() != null) {
+                request.header("If-Modified-Since", cached.lastModified());
+            }
+        }
+        return request.build();
+    }
+
+    private static <T> HttpResult<T> readResult(String urlString, HttpResponse<InputStream> response,
+            ListingCache.Entry cached, TrafficStats traffic, BodyReader<T> bodyReader) throws IOException {
+        int code = response.statusCode();
+        try (InputStream in = HttpTransport.body(response, REQUEST_TIMEOUT, traffic)) {
+            if (code == HTTP_NOT_MODIFIED && cached != null) {
+                return new HttpResult<>(code, null, cached.etag(), cached.lastModified(), cached.next(),
+                        cached.pages());
+            }
+            if (code != 200) {
+                throw new IOException("HTTP " + code + ": " + HttpTransport.readErrorBody(in));
+            }
+            HttpHeaders headers = response.headers();
+            String link = headers.firstValue("Link").orElse(null);
+            String next = parseNextLink(urlString, link);
+            if (next == null) {
+                int nextPage = parsePage(headers.firstValue("X-Next-Page").orElse(null));
+                next = nextPage > 0 ? withPage(urlString, nextPage) : null;
+            }
+            int totalPages = parsePage(headers.firstValue("X-Total-Pages").orElse(null));
+            if (totalPages == 0) {
+                totalPages = parseLastPage(link);
+            }
+            return new HttpResult<>(code, bodyReader.read(in), headers.firstValue("ETag").orElse(null),
+                    headers.firstValue("Last-Modified").orElse(null), next, totalPages);
+        }
+    }
+
+    static int parseLastPage(String linkHeader) {
+        if (linkHeader == null) {
+            return 0;
+        }
+        Matcher last = LINK_LAST.matcher(linkHeader);
+        if (!last.find()) {
+            return 0;
+        }
+        Matcher page = PAGE_PARAM.matcher(last.group(1));
+        return page.find() ? parsePage(page.group(1)) : 0;
+    }
+
+    private static int parsePage(String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    static String parseNextLink(String requestUrl, String linkHeader) {
+        if (linkHeader == null) {
+            return null;
+        }
+        Matcher m = LINK_NEXT.matcher(linkHeader);
+        if (!m.find()) {
+            return null;
+        }
+        return URI.create(requestUrl).resolve(m.group(1)).toString();
+    }
+}
@@ -0,0 +1,141 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+final class PackBundle {
+
+    private static final String BUNDLE_FILE = "mods.zip";
+    private static final String BUNDLE_SUFFIX = ".bundle";
+    private static final String MODS_PREFIX = "mods/";
+    private static final int MIN_FILES = 4;
+    private static final int STREAM_BUFFER = 64 * 1024;
+    private static final int HTTP_NOT_FOUND = 404;
+
+    private PackBundle() {
+    }
+
+    static String urlFor(String modsBaseUrl) {
+        String base = modsBaseUrl.endsWith("/") ? modsBaseUrl : modsBaseUrl + "/";
+        if (base.endsWith("/" + MODS_PREFIX)) {
+            base = base.substring(0, base.length() - MODS_PREFIX.length());
+        }
+        return base + BUNDLE_FILE;
+    }
+
+    static boolean worthwhile(UpdaterSettings settings, int toAdd, int packSize) {
+        return settings.bundleEnabled() && toAdd >= MIN_FILES
+                && toAdd * 100L >= (long) packSize * settings.bundleMinPercent();
+    }
+
+    static Set<String> install(String url, Path modsDir, List<DownloadTask> tasks, DownloadContext context,
+            ProgressTracker tracker) throws IOException {
+        Map<String, DownloadTask> wanted = new HashMap<>();
+        for (DownloadTask task : tasks) {
+            wanted.put(task.filename(), task);
+        }
+        Set<String> installed = new HashSet<>();
+        tracker.startDownloads(tasks.size(), 1);
+        ProgressTracker.Slot slot = tracker.slot(0);
+        try {
+            HttpResponse<InputStream> response = HttpTransport.send(
+                    HttpTransport.request(url, ModPackUpdater.RESPONSE_TIMEOUT).build(), context.traffic());
+            try (InputStream body = HttpTransport.body(response, ModPackUpdater.READ_TIMEOUT, context.traffic())) {
+                if (response.statusCode() == HTTP_NOT_FOUND) {
+                    ModPackUpdater.LOGGER.debug("No pack bundle at {}, downloading files individually", url);
+                    return installed;
+                }
+                if (response.statusCode() != ModPackUpdater.HTTP_OK) {
+                    throw new IOException("HTTP " + response.statusCode() + " for " + url);
+                }
+                ZipInputStream zip = new ZipInputStream(new BufferedInputStream(body, STREAM_BUFFER));
+                ReadableByteChannel source = Channels.newChannel(zip);
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null && installed.size() < wanted.size()) {
+                    DownloadTask task = entry.isDirectory() ? null : wanted.get(filenameOf(entry.getName()));
+                    if (task == null || installed.contains(task.filename())) {
+                        continue;
+                    }
+                    slot.begin(task.filename());
+                    try {
+                        if (extract(source, modsDir, task, url, context, slot)) {
+                            installed.add(task.filename());
+                            if (context.journal() != null) {
+                                context.journal().installed(task.filename());
+                            }
+                            slot.complete(Files.size(modsDir.resolve(task.filename())));
+                        }
+                    } finally {
+                        slot.clear();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (ModPackUpdater.isInterruption(e)) {
+                throw e;
+            }
+            ModPackUpdater.LOGGER.warn("Pack bundle {} failed after {} of {} files, downloading the rest "
+                    + "individually: {}", url, installed.size(), tasks.size(), e.toString());
+        }
+        return installed;
+    }
+
+    private static boolean extract(ReadableByteChannel source, Path modsDir, DownloadTask task, String url,
+            DownloadContext context, ProgressTracker.Slot slot) throws IOException {
+        Path target = modsDir.resolve(task.filename());
+        Path part = target.resolveSibling(target.getFileName() + BUNDLE_SUFFIX + ModPackUpdater.PART_SUFFIX);
+        UpdaterEvents.DownloadEvent event = new UpdaterEvents.DownloadEvent();
+        event.filename = task.filename();
+        event.host = DownloadTask.hostOf(url);
+        event.source = "bundle";
+        long start = System.nanoTime();
+        event.begin();
+        DownloadDigest digest = DownloadDigest.start(task.expectedSize());
+        try (FileChannel out = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+                TransferProgress progress = TransferProgress.start(0, task.expectedSize(), slot.reporter())) {
+            slot.attach(progress);
+            ModPackUpdater.copy(source, out, progress, context.minBufferSize(), context.maxBufferSize(),
+                    context.bandwidth(), digest, context.received());
+            event.bytes = progress.bytes();
+        }
+        HashCache.Entry digests;
+        try {
+            digests = ModPackUpdater.verifyDownload(part, task.expectedSize(), task.expectedSha256(),
+                    task.expectedGitSha(), digest);
+        } catch (IOException e) {
+            Files.deleteIfExists(part);
+            ModPackUpdater.LOGGER.warn("Skipping {} from pack bundle: {}", task.filename(), e.getMessage());
+            return false;
+        }
+        ModPackUpdater.moveIntoPlace(part, target);
+        if (digests != null && context.hashCache() != null) {
+            context.hashCache().record(target, digests.sha256(), digests.gitSha());
+        }
+        if (digests != null && context.jarStore() != null) {
+            context.jarStore().add(target, digests.sha256(), digests.gitSha());
+        }
+        ModPackUpdater.completeDownload(event, start, context.report());
+        return true;
+    }
+
+    private static String filenameOf(String entryName) {
+        String name = entryName.startsWith(MODS_PREFIX) ? entryName.substring(MODS_PREFIX.length()) : entryName;
+        return name.isEmpty() || name.contains("/") || name.contains("\\") ? null : name;
+    }
+}
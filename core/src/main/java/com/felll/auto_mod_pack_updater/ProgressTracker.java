@@ -0,0 +1,212 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class ProgressTracker {
+
+    private static final Slot[] NO_SLOTS = new Slot[0];
+    private static final long RATE_WINDOW_NANOS = 250_000_000;
+    private static final double RATE_SMOOTHING = 0.3;
+
+    private final AtomicInteger completedFiles = new AtomicInteger();
+    private final AtomicInteger removedFiles = new AtomicInteger();
+    private final LongAdder completedBytes = new LongAdder();
+    private final Set<String> completedNames = ConcurrentHashMap.newKeySet();
+    private final AtomicLong startSequence = new AtomicLong();
+    private volatile int totalFiles;
+    private volatile int totalRemovals;
+    private volatile Slot[] slots = NO_SLOTS;
+
+    void startRemovals(int total) {
+        totalRemovals = total;
+    }
+
+    void fileRemoved() {
+        removedFiles.incrementAndGet();
+    }
+
+    void startDownloads(int total, int slotCount) {
+        Slot[] created = new Slot[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            created[i] = new Slot(this, null);
+        }
+        totalFiles = completedFiles.get() + total;
+        slots = created;
+    }
+
+    Slot slot(int index) {
+        return slots[index];
+    }
+
+    public void sample(Snapshot into) {
+        int active = 0;
+        long bytes = completedBytes.sum();
+        long totalBytes = bytes;
+        long latestStart = -1;
+        String filename = null;
+        into.activeNames.clear();
+        for (Slot slot : slots) {
+            String name = slot.filename;
+            if (name == null) {
+                continue;
+            }
+            active++;
+            into.activeNames.add(name);
+            TransferProgress transfer = slot.transfer;
+            if (transfer != null) {
+                long slotBytes = transfer.bytes();
+                bytes += slotBytes;
+                totalBytes += Math.max(slotBytes, transfer.totalBytes());
+            }
+            if (slot.sequence > latestStart) {
+                latestStart = slot.sequence;
+                filename = name;
+            }
+        }
+        int completed = completedFiles.get();
+        into.totalFiles = totalFiles;
+        into.completedFiles = completed;
+        into.current = Math.min(into.totalFiles, completed + active);
+        into.filename = filename != null ? filename : into.filename;
+        into.completedNames = completedNames;
+        into.totalRemovals = totalRemovals;
+        into.removedFiles = removedFiles.get();
+        into.bytes = bytes;
+        into.totalBytes = totalBytes;
+        into.updateRate(System.nanoTime(), bytes);
+    }
+
+    public static final class Slot {
+
+        private final ProgressTracker owner;
+        private final BytesProgressReporter reporter;
+        private volatile String filename;
+        private volatile long sequence;
+        private volatile TransferProgress transfer;
+
+        Slot(ProgressTracker owner, BytesProgressReporter reporter) {
+            this.owner = owner;
+            this.reporter = reporter;
+        }
+
+        static Slot reporting(BytesProgressReporter reporter) {
+            return new Slot(null, reporter);
+        }
+
+        BytesProgressReporter reporter() {
+            return reporter;
+        }
+
+        void begin(String name) {
+            transfer = null;
+            if (owner != null) {
+                sequence = owner.startSequence.incrementAndGet();
+            }
+            filename = name;
+        }
+
+        void attach(TransferProgress progress) {
+            transfer = progress;
+        }
+
+        void complete(long size) {
+            if (owner != null) {
+                owner.completedBytes.add(size);
+                if (filename != null) {
+                    owner.completedNames.add(filename);
+                }
+                owner.completedFiles.incrementAndGet();
+            }
+            clear();
+        }
+
+        void clear() {
+            filename = null;
+            transfer = null;
+        }
+    }
+
+    public static final class Snapshot {
+
+        private int current;
+        private int totalFiles;
+        private int completedFiles;
+        private String filename;
+        private final Set<String> activeNames = new HashSet<>();
+        private Set<String> completedNames = Collections.emptySet();
+        private int removedFiles;
+        private int totalRemovals;
+        private long bytes;
+        private long totalBytes;
+        private double bytesPerSecond;
+        private long rateNanos;
+        private long rateBytes;
+
+        public int current() {
+            return current;
+        }
+
+        public int totalFiles() {
+            return totalFiles;
+        }
+
+        public int completedFiles() {
+            return completedFiles;
+        }
+
+        public String filename() {
+            return filename;
+        }
+
+        public boolean isActive(String name) {
+            return activeNames.contains(name);
+        }
+
+        public boolean isCompleted(String name) {
+            return completedNames.contains(name);
+        }
+
+        public int removedFiles() {
+            return removedFiles;
+        }
+
+        public int totalRemovals() {
+            return totalRemovals;
+        }
+
+        public long bytes() {
+            return bytes;
+        }
+
+        public long totalBytes() {
+            return totalBytes;
+        }
+
+        public double bytesPerSecond() {
+            return bytesPerSecond;
+        }
+
+        private void updateRate(long now, long sampledBytes) {
+            if (rateNanos == 0) {
+                rateNanos = now;
+                rateBytes = sampledBytes;
+                return;
+            }
+            long elapsed = now - rateNanos;
+            if (elapsed < RATE_WINDOW_NANOS) {
+                return;
+            }
+            double instant = Math.max(0, sampledBytes - rateBytes) * 1_000_000_000.0 / elapsed;
+            bytesPerSecond = bytesPerSecond == 0 ? instant
+                    : bytesPerSecond + RATE_SMOOTHING * (instant - bytesPerSecond);
+            rateNanos = now;
+            rateBytes = sampledBytes;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public final class ProviderRegistry {
+
+    public static final ProviderRegistry DEFAULT = new ProviderRegistry()
+            .register("github.com", RepoProviders.GITHUB)
+            .register("www.github.com", RepoProviders.GITHUB)
+            .register("raw.githubusercontent.com", RepoProviders.GITHUB_RAW)
+            .register("gitlab.com", RepoProviders.gitlab("gitlab"))
+            .register("www.gitlab.com", RepoProviders.gitlab("gitlab"))
+            .register("codeberg.org", RepoProviders.forgejo("codeberg"))
+            .register("www.codeberg.org", RepoProviders.forgejo("codeberg"))
+            .register("git.sr.ht", RepoProviders.SOURCEHUT);
+
+    private static final String[] SELF_HOSTED_KINDS = { "gitlab", "forgejo", "gitea" };
+
+    private final Map<String, RepoProvider> providers = new HashMap<>();
+
+    private ProviderRegistry() {
+    }
+
+    public static ProviderRegistry forGameDirectory(Path gameDirectory) {
+        return gameDirectory != null ? fromSettings(ConfigLoader.loadSettings(gameDirectory)) : DEFAULT;
+    }
+
+    public static ProviderRegistry fromSettings(UpdaterSettings settings) {
+        ProviderRegistry registry = null;
+        for (String kind : SELF_HOSTED_KINDS) {
+            for (String host : settings.providerHosts(kind)) {
+                if (registry == null) {
+                    registry = new ProviderRegistry();
+                    registry.providers.putAll(DEFAULT.providers);
+                }
+                registry.register(host, kind.equals("gitlab") ? RepoProviders.gitlab(kind) : RepoProviders.forgejo(kind));
+            }
+        }
+        return registry != null ? registry : DEFAULT;
+    }
+
+    private ProviderRegistry register(String host, RepoProvider provider) {
+        providers.put(host.toLowerCase(Locale.ROOT), provider);
+        return this;
+    }
+
+    public ResolvedRepo resolve(String url) {
+        String trimmed = url.trim();
+        if (!trimmed.startsWith("http://") && !trimmed.startsWith("https://")) {
+            return null;
+        }
+        URI uri;
+        try {
+            uri = new URI(trimmed);
+        } catch (URISyntaxException e) {
+            return ResolvedRepo.generic(withTrailingSlash(trimmed));
+        }
+        String authority = uri.getRawAuthority();
+        RepoProvider provider = null;
+        if (authority != null) {
+            authority = authority.toLowerCase(Locale.ROOT);
+            provider = providers.get(authority);
+            if (provider == null && uri.getHost() != null) {
+                provider = providers.get(uri.getHost().toLowerCase(Locale.ROOT));
+            }
+        }
+        if (provider != null) {
+            List<String> segments = new ArrayList<>();
+            for (String s : (uri.getRawPath() != null ? uri.getRawPath() : "").split("/")) {
+                if (!s.isEmpty()) {
+                    segments.add(s);
+                }
+            }
+            ResolvedRepo resolved = provider.resolve(new RepoProvider.Location(uri.getScheme(), authority, segments));
+            if (resolved != null) {
+                return resolved;
+            }
+        }
+        return ResolvedRepo.generic(withTrailingSlash(trimmed));
+    }
+
+    private static String withTrailingSlash(String url) {
+        return url.endsWith("/") ? url : url + "/";
+    }
+}
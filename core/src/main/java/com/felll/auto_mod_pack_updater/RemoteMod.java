@@ -0,0 +1,20 @@
+package com.felll.auto_mod_pack_updater;
+
+public record RemoteMod(String filename, String url, String hash, long size, String gitSha) {
+
+    public RemoteMod(String filename, String url) {
+        this(filename, url, null, -1, null);
+    }
+
+    public RemoteMod(String filename, String url, String hash, long size) {
+        this(filename, url, hash, size, null);
+    }
+
+    public String sha256() {
+        return HashCache.normalizeSha256(hash);
+    }
+
+    public boolean hasDigest() {
+        return sha256() != null || gitSha != null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.util.List;
+
+interface RepoProvider {
+
+    String MODS_FOLDER = "mods";
+    String DEFAULT_BRANCH = "main";
+
+    ResolvedRepo resolve(Location location);
+
+    record Location(String scheme, String authority, List<String> segments) {
+
+        int size() {
+            return segments.size();
+        }
+
+        String segment(int index) {
+            return index < segments.size() ? segments.get(index) : null;
+        }
+
+        String remainder(int skip) {
+            return skip < segments.size() ? String.join("/", segments.subList(skip, segments.size())) + "/" : "";
+        }
+    }
+}
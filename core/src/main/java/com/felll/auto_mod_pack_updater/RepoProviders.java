@@ -0,0 +1,109 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.util.List;
+
+final class RepoProviders {
+
+    private static final int PAGE_SIZE = 100;
+
+    static final RepoProvider GITHUB = RepoProviders::resolveGitHub;
+    static final RepoProvider GITHUB_RAW = RepoProviders::resolveGitHubRaw;
+    static final RepoProvider SOURCEHUT = RepoProviders::resolveSourcehut;
+
+    private RepoProviders() {
+    }
+
+    static RepoProvider gitlab(String name) {
+        return location -> resolveGitLab(name, location);
+    }
+
+    static RepoProvider forgejo(String name) {
+        return location -> resolveForgejo(name, location);
+    }
+
+    private static ResolvedRepo resolveGitHub(RepoProvider.Location l) {
+        if (l.size() < 2) {
+            return null;
+        }
+        String owner = l.segment(0);
+        String repo = stripGitSuffix(l.segment(1));
+        String branch = "tree".equals(l.segment(2)) && l.size() > 3 ? l.segment(3) : RepoProvider.DEFAULT_BRANCH;
+        return github(owner, repo, branch, "");
+    }
+
+    private static ResolvedRepo resolveGitHubRaw(RepoProvider.Location l) {
+        if (l.size() < 3) {
+            return null;
+        }
+        return github(l.segment(0), l.segment(1), l.segment(2), l.remainder(3));
+    }
+
+    private static ResolvedRepo github(String owner, String repo, String branch, String subPath) {
+        String raw = String.format("https://raw.githubusercontent.com/%s/%s/%s/%s", owner, repo, branch, subPath);
+        String api = String.format("https://api.github.com/repos/%s/%s/git/trees/%s?recursive=1", owner, repo, branch);
+        return new ResolvedRepo("github", "github.com", owner, repo, branch, raw, subPath + RepoProvider.MODS_FOLDER,
+                api, "application/vnd.github+json");
+    }
+
+    private static ResolvedRepo resolveGitLab(String name, RepoProvider.Location l) {
+        int dash = l.segments().indexOf("-");
+        int projectEnd = dash >= 0 ? dash : l.size();
+        if (projectEnd < 2) {
+            return null;
+        }
+        List<String> project = l.segments().subList(0, projectEnd);
+        String owner = String.join("/", project.subList(0, project.size() - 1));
+        String repo = stripGitSuffix(project.get(project.size() - 1));
+        String kind = dash >= 0 ? l.segment(dash + 1) : null;
+        boolean hasRef = ("tree".equals(kind) || "raw".equals(kind)) && l.size() > dash + 2;
+        String branch = hasRef ? l.segment(dash + 2) : RepoProvider.DEFAULT_BRANCH;
+        String subPath = "raw".equals(kind) && hasRef ? l.remainder(dash + 3) : "";
+        String origin = l.scheme() + "://" + l.authority();
+        String raw = String.format("%s/%s/%s/-/raw/%s/%s", origin, owner, repo, branch, subPath);
+        String modsPath = subPath + RepoProvider.MODS_FOLDER;
+        String api = String.format(
+                "%s/api/v4/projects/%s/repository/tree?path=%s&ref=%s&recursive=true&per_page=%d",
+                origin, (owner + "/" + repo).replace("/", "%2F"), modsPath.replace("/", "%2F"), branch, PAGE_SIZE);
+        return new ResolvedRepo(name, l.authority(), owner, repo, branch, raw, modsPath, api, "application/json");
+    }
+
+    private static ResolvedRepo resolveForgejo(String name, RepoProvider.Location l) {
+        if (l.size() < 2) {
+            return null;
+        }
+        String owner = l.segment(0);
+        String repo = stripGitSuffix(l.segment(1));
+        String refKind = "branch";
+        String branch = RepoProvider.DEFAULT_BRANCH;
+        if ("src".equals(l.segment(2)) && l.size() > 3) {
+            String kind = l.segment(3);
+            if ((kind.equals("branch") || kind.equals("commit") || kind.equals("tag")) && l.size() > 4) {
+                refKind = kind;
+                branch = l.segment(4);
+            } else {
+                branch = kind;
+            }
+        }
+        String origin = l.scheme() + "://" + l.authority();
+        String raw = String.format("%s/%s/%s/raw/%s/%s/", origin, owner, repo, refKind, branch);
+        String api = String.format("%s/api/v1/repos/%s/%s/git/trees/%s?recursive=true", origin, owner, repo, branch);
+        return new ResolvedRepo(name, l.authority(), owner, repo, branch, raw, RepoProvider.MODS_FOLDER, api,
+                "application/json");
+    }
+
+    private static ResolvedRepo resolveSourcehut(RepoProvider.Location l) {
+        if (l.size() < 2) {
+            return null;
+        }
+        String owner = l.segment(0).startsWith("~") ? l.segment(0).substring(1) : l.segment(0);
+        String repo = stripGitSuffix(l.segment(1));
+        String branch = "tree".equals(l.segment(2)) && l.size() > 3 ? l.segment(3) : RepoProvider.DEFAULT_BRANCH;
+        String raw = String.format("https://git.sr.ht/~%s/%s/blob/%s/", owner, repo, branch);
+        return new ResolvedRepo("sourcehut", "git.sr.ht", owner, repo, branch, raw, RepoProvider.MODS_FOLDER, null,
+                null);
+    }
+
+    private static String stripGitSuffix(String repo) {
+        return repo.endsWith(".git") ? repo.substring(0, repo.length() - 4) : repo;
+    }
+}
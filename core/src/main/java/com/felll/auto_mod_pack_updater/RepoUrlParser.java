@@ -0,0 +1,26 @@
+package com.felll.auto_mod_pack_updater;
+
+public final class RepoUrlParser {
+
+    private RepoUrlParser() {
+    }
+
+    public static record BaseUrlInfo(String baseUrl, String provider) {
+    }
+
+    public static record RepoInfo(String owner, String repo, String branch, String provider, String host) {
+    }
+
+    public static BaseUrlInfo parse(String url) {
+        ResolvedRepo repo = ProviderRegistry.DEFAULT.resolve(url);
+        return repo != null ? new BaseUrlInfo(repo.rawBaseUrl(), repo.provider()) : null;
+    }
+
+    public static RepoInfo parseForApi(String url) {
+        ResolvedRepo repo = ProviderRegistry.DEFAULT.resolve(url);
+        if (repo == null || !repo.hasListing()) {
+            return null;
+        }
+        return new RepoInfo(repo.owner(), repo.repo(), repo.branch(), repo.provider(), repo.host());
+    }
+}
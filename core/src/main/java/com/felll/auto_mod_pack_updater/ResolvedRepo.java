@@ -0,0 +1,13 @@
+package com.felll.auto_mod_pack_updater;
+
+public record ResolvedRepo(String provider, String host, String owner, String repo, String branch, String rawBaseUrl,
+        String modsPath, String listingUrl, String listingAccept) {
+
+    static ResolvedRepo generic(String baseUrl) {
+        return new ResolvedRepo("generic", null, null, null, null, baseUrl, null, null, null);
+    }
+
+    public boolean hasListing() {
+        return listingUrl != null;
+    }
+}
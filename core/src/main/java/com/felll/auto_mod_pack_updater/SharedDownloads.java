@@ -0,0 +1,93 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+final class SharedDownloads {
+
+    private final Map<String, CompletableFuture<Path>> downloads = new ConcurrentHashMap<>();
+
+    interface Fetch {
+        void run() throws IOException;
+    }
+
+    void download(DownloadTask task, Path target, DownloadContext context, Fetch fetch) throws IOException {
+        String key = keyOf(task);
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> current = downloads.putIfAbsent(key, mine);
+        while (current != null) {
+            Path source = await(current);
+            if (source != null) {
+                if (!place(source, task, target, context)) {
+                    fetch.run();
+                }
+                return;
+            }
+            current = downloads.replace(key, current, mine) ? null : downloads.get(key);
+        }
+        try {
+            fetch.run();
+            mine.complete(target);
+        } catch (IOException | RuntimeException e) {
+            mine.complete(null);
+            throw e;
+        }
+    }
+
+    private static String keyOf(DownloadTask task) {
+        if (task.expectedSha256() != null) {
+            return "sha256:" + task.expectedSha256();
+        }
+        if (task.expectedGitSha() != null) {
+            return "git:" + task.expectedGitSha();
+        }
+        return "url:" + task.url() + "#" + task.expectedSize();
+    }
+
+    private static Path await(CompletableFuture<Path> download) throws IOException {
+        try {
+            return download.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Download cancelled");
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private static boolean place(Path source, DownloadTask task, Path target, DownloadContext context) {
+        UpdaterEvents.DownloadEvent event = new UpdaterEvents.DownloadEvent();
+        event.filename = task.filename();
+        event.host = task.host();
+        event.source = "shared";
+        long start = System.nanoTime();
+        event.begin();
+        Path tmp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            try {
+                if (task.expectedSize() >= 0 && Files.size(source) != task.expectedSize()) {
+                    return false;
+                }
+                JarStore.linkOrCopy(source, tmp);
+                ModPackUpdater.moveIntoPlace(tmp, target);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            if (context.hashCache() != null && (task.expectedSha256() != null || task.expectedGitSha() != null)) {
+                context.hashCache().record(target, task.expectedSha256(), task.expectedGitSha());
+            }
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.warn("Failed to reuse {} downloaded for another instance", source, e);
+            return false;
+        }
+        ModPackUpdater.completeDownload(event, start, context.report());
+        return true;
+    }
+}
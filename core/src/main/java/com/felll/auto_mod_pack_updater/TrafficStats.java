@@ -0,0 +1,58 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+final class TrafficStats {
+
+    private final Map<String, HostCounter> hosts = new ConcurrentHashMap<>();
+
+    record HostStats(long requests, long ttfbNanos, long maxTtfbNanos, long bytes) {
+    }
+
+    private static final class HostCounter {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder ttfbNanos = new LongAdder();
+        private final LongAccumulator maxTtfbNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder bytes = new LongAdder();
+
+        HostStats snapshot() {
+            return new HostStats(requests.sum(), ttfbNanos.sum(), maxTtfbNanos.get(), bytes.sum());
+        }
+    }
+
+    void recordResponse(URI uri, long ttfbNanos) {
+        HostCounter counter = counterFor(uri);
+        counter.requests.increment();
+        counter.ttfbNanos.add(ttfbNanos);
+        counter.maxTtfbNanos.accumulate(ttfbNanos);
+    }
+
+    LongAdder bytesFor(URI uri) {
+        return counterFor(uri).bytes;
+    }
+
+    Map<String, HostStats> hostStats() {
+        Map<String, HostStats> stats = new HashMap<>();
+        hosts.forEach((host, counter) -> stats.put(host, counter.snapshot()));
+        return stats;
+    }
+
+    long totalBytes() {
+        long total = 0;
+        for (HostCounter counter : hosts.values()) {
+            total += counter.bytes.sum();
+        }
+        return total;
+    }
+
+    private HostCounter counterFor(URI uri) {
+        String host = uri.getHost() != null ? uri.getHost() : "";
+        return hosts.computeIfAbsent(host, h -> new HostCounter());
+    }
+}
@@ -0,0 +1,66 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+final class TransferProgress implements AutoCloseable {
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 100;
+    private static final ScheduledExecutorService SAMPLER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "AutoModPackUpdater-Progress");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final long startOffset;
+    private final long totalBytes;
+    private final long startTime = System.nanoTime();
+    private final BytesProgressReporter reporter;
+    private final ScheduledFuture<?> sampling;
+    private volatile long bytes;
+
+    private TransferProgress(long startOffset, long totalBytes, BytesProgressReporter reporter) {
+        this.startOffset = startOffset;
+        this.totalBytes = totalBytes;
+        this.reporter = reporter;
+        this.bytes = startOffset;
+        this.sampling = reporter != null
+                ? SAMPLER.scheduleAtFixedRate(this::sample, SAMPLE_INTERVAL_MILLIS, SAMPLE_INTERVAL_MILLIS,
+                        TimeUnit.MILLISECONDS)
+                : null;
+    }
+
+    static TransferProgress start(long startOffset, long totalBytes, BytesProgressReporter reporter) {
+        return new TransferProgress(startOffset, totalBytes, reporter);
+    }
+
+    @SuppressWarnings("NonAtomicVolatileUpdate")
+    void add(long n) {
+        bytes += n;
+    }
+
+    long bytes() {
+        return bytes;
+    }
+
+    long totalBytes() {
+        return totalBytes;
+    }
+
+    private void sample() {
+        long current = bytes;
+        double elapsedSec = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        double bytesPerSecond = elapsedSec > 0 ? (current - startOffset) / elapsedSec : 0;
+        reporter.report(current, totalBytes, bytesPerSecond);
+    }
+
+    @Override
+    public void close() {
+        if (sampling != null) {
+            sampling.cancel(false);
+            sample();
+        }
+    }
+}
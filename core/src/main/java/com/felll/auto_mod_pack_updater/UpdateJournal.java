@@ -0,0 +1,223 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+
+final class UpdateJournal implements AutoCloseable {
+
+    private static final String JOURNAL_FILE = "update-journal.jsonl";
+    private static final Gson GSON = new Gson();
+
+    private final Path journalPath;
+    private FileChannel channel;
+
+    private UpdateJournal(Path journalPath, FileChannel channel) {
+        this.journalPath = journalPath;
+        this.channel = channel;
+    }
+
+    record Pending(List<RemoteMod> install, List<String> remove, Set<String> installed, Set<String> removed,
+            int packSize) {
+    }
+
+    static Path journalPath(Path gameDirectory) {
+        return ConfigLoader.getConfigDirectory(gameDirectory).resolve(JOURNAL_FILE);
+    }
+
+    static UpdateJournal begin(Path gameDirectory, List<RemoteMod> install, List<String> remove, int packSize) {
+        Path path = journalPath(gameDirectory);
+        JsonObject begin = new JsonObject();
+        begin.addProperty("op", "begin");
+        begin.addProperty("packSize", packSize);
+        JsonArray removeArr = new JsonArray();
+        for (String filename : remove) {
+            removeArr.add(filename);
+        }
+        begin.add("remove", removeArr);
+        JsonArray installArr = new JsonArray();
+        for (RemoteMod mod : install) {
+            JsonObject obj = new JsonObject();
+            obj.addProperty("name", mod.filename());
+            obj.addProperty("url", mod.url());
+            if (mod.hash() != null) {
+                obj.addProperty("hash", mod.hash());
+            }
+            obj.addProperty("size", mod.size());
+            if (mod.gitSha() != null) {
+                obj.addProperty("gitSha", mod.gitSha());
+            }
+            installArr.add(obj);
+        }
+        begin.add("install", installArr);
+        try {
+            Files.createDirectories(path.getParent());
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            UpdateJournal journal = new UpdateJournal(path, channel);
+            journal.append(begin);
+            return journal;
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.warn("Failed to start update journal, an interrupted update will be redone", e);
+            return new UpdateJournal(path, null);
+        }
+    }
+
+    void removed(String filename) {
+        step("remove", filename);
+    }
+
+    void installed(String filename) {
+        step("install", filename);
+    }
+
+    synchronized void commit() {
+        close();
+        try {
+            Files.deleteIfExists(journalPath);
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.warn("Failed to delete update journal", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.warn("Failed to close update journal", e);
+        }
+        channel = null;
+    }
+
+    private synchronized void step(String op, String filename) {
+        if (channel == null) {
+            return;
+        }
+        JsonObject obj = new JsonObject();
+        obj.addProperty("op", op);
+        obj.addProperty("name", filename);
+        try {
+            append(obj);
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.warn("Failed to journal {} of {}", op, filename, e);
+        }
+    }
+
+    private void append(JsonObject record) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap((GSON.toJson(record) + "\n").getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+        channel.force(false);
+    }
+
+    static Pending read(Path gameDirectory) {
+        Path path = journalPath(gameDirectory);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        List<RemoteMod> install = null;
+        List<String> remove = null;
+        int packSize = -1;
+        Set<String> installed = new HashSet<>();
+        Set<String> removed = new HashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonObject record;
+                try {
+                    record = GSON.fromJson(line, JsonObject.class);
+                } catch (JsonParseException e) {
+                    break;
+                }
+                if (record == null || !record.has("op")) {
+                    continue;
+                }
+                switch (record.get("op").getAsString()) {
+                    case "begin" -> {
+                        install = parseInstall(record.getAsJsonArray("install"));
+                        remove = parseNames(record.getAsJsonArray("remove"));
+                        packSize = record.has("packSize") ? record.get("packSize").getAsInt() : -1;
+                    }
+                    case "install" -> installed.add(record.get("name").getAsString());
+                    case "remove" -> removed.add(record.get("name").getAsString());
+                    default -> {
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            ModPackUpdater.LOGGER.warn("Failed to read update journal, discarding it", e);
+            discard(gameDirectory);
+            return null;
+        }
+        if (install == null) {
+            discard(gameDirectory);
+            return null;
+        }
+        return new Pending(install, remove, installed, removed, packSize);
+    }
+
+    static void discard(Path gameDirectory) {
+        try {
+            Files.deleteIfExists(journalPath(gameDirectory));
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.warn("Failed to delete update journal", e);
+        }
+    }
+
+    private static List<RemoteMod> parseInstall(JsonArray arr) {
+        List<RemoteMod> mods = new ArrayList<>();
+        if (arr == null) {
+            return mods;
+        }
+        for (JsonElement el : arr) {
+            if (!el.isJsonObject()) {
+                continue;
+            }
+            JsonObject obj = el.getAsJsonObject();
+            String name = getStr(obj, "name");
+            String url = getStr(obj, "url");
+            if (name != null && url != null) {
+                long size = obj.has("size") ? obj.get("size").getAsLong() : -1;
+                mods.add(new RemoteMod(name, url, getStr(obj, "hash"), size, getStr(obj, "gitSha")));
+            }
+        }
+        return mods;
+    }
+
+    private static List<String> parseNames(JsonArray arr) {
+        List<String> names = new ArrayList<>();
+        if (arr != null) {
+            for (JsonElement el : arr) {
+                if (el.isJsonPrimitive()) {
+                    names.add(el.getAsString());
+                }
+            }
+        }
+        return names;
+    }
+
+    private static String getStr(JsonObject obj, String key) {
+        JsonElement el = obj.get(key);
+        return el != null && el.isJsonPrimitive() ? el.getAsString() : null;
+    }
+}
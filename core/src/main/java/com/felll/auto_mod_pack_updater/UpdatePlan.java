@@ -7,6 +7,7 @@ public final class UpdatePlan {
 
     private final List<String> toAdd = new ArrayList<>();
     private final List<String> toRemove = new ArrayList<>();
+    private int packSize = -1;
 
     public List<String> getToAdd() {
         return toAdd;
@@ -16,6 +17,14 @@ public final class UpdatePlan {
         return toRemove;
     }
 
+    public int getPackSize() {
+        return packSize;
+    }
+
+    void setPackSize(int packSize) {
+        this.packSize = packSize;
+    }
+
     public boolean hasChanges() {
         return !toAdd.isEmpty() || !toRemove.isEmpty();
     }
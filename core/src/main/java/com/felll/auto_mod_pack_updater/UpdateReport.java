@@ -0,0 +1,172 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+public final class UpdateReport {
+
+    private static final String REPORT_FILE = "update-report.json";
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private final String repositoryUrl;
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final TrafficStats traffic = new TrafficStats();
+    private final Map<String, long[]> phases = new LinkedHashMap<>();
+    private final List<JsonObject> downloads = new ArrayList<>();
+    private final List<JsonObject> failures = new ArrayList<>();
+    private long durationNanos = -1;
+    private String outcome = "running";
+    private String error;
+    private UpdateReport recovery;
+
+    public UpdateReport(String repositoryUrl) {
+        this.repositoryUrl = repositoryUrl;
+    }
+
+    TrafficStats traffic() {
+        return traffic;
+    }
+
+    Phase network(String name, UpdaterEvents.PhaseEvent event) {
+        return new Phase(name, event, traffic.totalBytes());
+    }
+
+    Phase local(String name, UpdaterEvents.PhaseEvent event) {
+        return new Phase(name, event, -1);
+    }
+
+    synchronized void recordDownload(UpdaterEvents.DownloadEvent event, long durationNanos) {
+        JsonObject obj = new JsonObject();
+        obj.addProperty("file", event.filename);
+        obj.addProperty("host", event.host);
+        obj.addProperty("source", event.source);
+        obj.addProperty("bytes", event.bytes);
+        obj.addProperty("durationMs", millis(durationNanos));
+        if (event.timeToFirstByte > 0) {
+            obj.addProperty("ttfbMs", millis(event.timeToFirstByte));
+        }
+        downloads.add(obj);
+    }
+
+    synchronized void recordFailure(String filename, Throwable failure) {
+        JsonObject obj = new JsonObject();
+        obj.addProperty("file", filename);
+        obj.addProperty("error", String.valueOf(failure.getMessage()));
+        failures.add(obj);
+    }
+
+    public synchronized void finish(String outcome, Throwable failure) {
+        this.outcome = outcome;
+        this.error = failure != null ? String.valueOf(failure.getMessage()) : null;
+        this.durationNanos = System.nanoTime() - startNanos;
+    }
+
+    synchronized void recovery(UpdateReport recovery) {
+        this.recovery = recovery;
+    }
+
+    public void write(Path gameDirectory) {
+        JsonObject root;
+        synchronized (this) {
+            root = toJson();
+        }
+        Path configDir = ConfigLoader.getConfigDirectory(gameDirectory);
+        try {
+            Files.createDirectories(configDir);
+            Files.writeString(configDir.resolve(REPORT_FILE), GSON.toJson(root), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            ModPackUpdater.LOGGER.warn("Failed to write update report", e);
+        }
+    }
+
+    private JsonObject toJson() {
+        JsonObject root = new JsonObject();
+        root.addProperty("repository", repositoryUrl);
+        root.addProperty("startedAt", startedAt.toString());
+        root.addProperty("durationMs", millis(durationNanos >= 0 ? durationNanos : System.nanoTime() - startNanos));
+        root.addProperty("outcome", outcome);
+        if (error != null) {
+            root.addProperty("error", error);
+        }
+        JsonObject phaseJson = new JsonObject();
+        for (Map.Entry<String, long[]> e : phases.entrySet()) {
+            JsonObject obj = new JsonObject();
+            obj.addProperty("durationMs", millis(e.getValue()[0]));
+            if (e.getValue()[1] >= 0) {
+                obj.addProperty("bytes", e.getValue()[1]);
+            }
+            phaseJson.add(e.getKey(), obj);
+        }
+        root.add("phases", phaseJson);
+        JsonArray downloadJson = new JsonArray(downloads.size());
+        downloads.forEach(downloadJson::add);
+        root.add("downloads", downloadJson);
+        if (!failures.isEmpty()) {
+            JsonArray failureJson = new JsonArray(failures.size());
+            failures.forEach(failureJson::add);
+            root.add("failures", failureJson);
+        }
+        JsonObject hostJson = new JsonObject();
+        for (Map.Entry<String, TrafficStats.HostStats> e : traffic.hostStats().entrySet()) {
+            TrafficStats.HostStats stats = e.getValue();
+            if (stats.requests() == 0) {
+                continue;
+            }
+            JsonObject obj = new JsonObject();
+            obj.addProperty("requests", stats.requests());
+            obj.addProperty("avgTtfbMs", millis(stats.ttfbNanos() / stats.requests()));
+            obj.addProperty("maxTtfbMs", millis(stats.maxTtfbNanos()));
+            obj.addProperty("bytes", stats.bytes());
+            hostJson.add(e.getKey(), obj);
+        }
+        root.add("hosts", hostJson);
+        if (recovery != null) {
+            synchronized (recovery) {
+                root.add("recovery", recovery.toJson());
+            }
+        }
+        return root;
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    final class Phase {
+
+        private final String name;
+        private final UpdaterEvents.PhaseEvent event;
+        private final long startBytes;
+        private final long start = System.nanoTime();
+
+        private Phase(String name, UpdaterEvents.PhaseEvent event, long startBytes) {
+            this.name = name;
+            this.event = event;
+            this.startBytes = startBytes;
+            event.begin();
+        }
+
+        void end() {
+            long elapsed = System.nanoTime() - start;
+            long bytes = startBytes >= 0 ? traffic.totalBytes() - startBytes : -1;
+            event.bytes = Math.max(0, bytes);
+            event.commit();
+            synchronized (UpdateReport.this) {
+                phases.put(name, new long[] { elapsed, bytes });
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.felll.auto_mod_pack_updater;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+final class UpdaterEvents {
+
+    private static final String CATEGORY = "Auto Mod Pack Updater";
+
+    private UpdaterEvents() {
+    }
+
+    abstract static class PhaseEvent extends Event {
+
+        @Label("Bytes Transferred")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("com.felll.automodpackupdater.Fetch")
+    @Label("Fetch Mod List")
+    @Category(CATEGORY)
+    static final class FetchEvent extends PhaseEvent {
+
+        @Label("Repository URL")
+        String url;
+
+        @Label("Mods")
+        int mods;
+    }
+
+    @Name("com.felll.automodpackupdater.Plan")
+    @Label("Compute Update Plan")
+    @Category(CATEGORY)
+    static final class PlanEvent extends PhaseEvent {
+
+        @Label("To Add")
+        int toAdd;
+
+        @Label("To Remove")
+        int toRemove;
+    }
+
+    @Name("com.felll.automodpackupdater.Remove")
+    @Label("Remove Mods")
+    @Category(CATEGORY)
+    static final class RemoveEvent extends PhaseEvent {
+
+        @Label("Removed")
+        int removed;
+    }
+
+    @Name("com.felll.automodpackupdater.DownloadAll")
+    @Label("Download Mods")
+    @Category(CATEGORY)
+    static final class DownloadAllEvent extends PhaseEvent {
+
+        @Label("Files")
+        int files;
+    }
+
+    @Name("com.felll.automodpackupdater.SaveState")
+    @Label("Save Updater State")
+    @Category(CATEGORY)
+    static final class SaveStateEvent extends PhaseEvent {
+    }
+
+    @Name("com.felll.automodpackupdater.Download")
+    @Label("Download Mod")
+    @Description("A single mod jar placed into the mods folder")
+    @Category(CATEGORY)
+    static final class DownloadEvent extends Event {
+
+        @Label("File")
+        String filename;
+
+        @Label("Host")
+        String host;
+
+        @Label("Source")
+        @Description("network, resumed, hedged, bundle, shared, peer or store")
+        String source;
+
+        @Label("Bytes Transferred")
+        @DataAmount
+        long bytes;
+
+        @Label("Time To First Byte")
+        @Timespan(Timespan.NANOSECONDS)
+        long timeToFirstByte;
+    }
+}
@@ -0,0 +1,128 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+public final class UpdaterSettings {
+
+    public static final UpdaterSettings DEFAULTS = new UpdaterSettings(new Properties());
+
+    private final Properties properties;
+
+    UpdaterSettings(Properties properties) {
+        this.properties = properties;
+    }
+
+    public int maxConcurrentDownloads() {
+        return getInt("downloads.maxConcurrent", 6, 1, 64);
+    }
+
+    public int maxDownloadsPerHost() {
+        return getInt("downloads.maxPerHost", 4, 1, 64);
+    }
+
+    public boolean adaptiveConcurrency() {
+        return getBoolean("downloads.adaptive", true);
+    }
+
+    public int adaptiveMaxConcurrent() {
+        return Math.max(maxConcurrentDownloads(), getInt("downloads.adaptiveMax", 16, 1, 64));
+    }
+
+    public long bandwidthLimit() {
+        return getInt("downloads.bandwidthLimitKb", 0, 0, Integer.MAX_VALUE) * 1024L;
+    }
+
+    public int minBufferSize() {
+        return getInt("downloads.minBufferKb", 64, 4, 16384) * 1024;
+    }
+
+    public int maxBufferSize() {
+        return Math.max(minBufferSize(), getInt("downloads.maxBufferKb", 1024, 4, 16384) * 1024);
+    }
+
+    public boolean hedgingEnabled() {
+        return getBoolean("downloads.hedging", false);
+    }
+
+    public int hedgePercentile() {
+        return getInt("downloads.hedgePercentile", 95, 50, 99);
+    }
+
+    public boolean bundleEnabled() {
+        return getBoolean("bundle.enabled", false);
+    }
+
+    public int bundleMinPercent() {
+        return getInt("bundle.minPercent", 50, 0, 100);
+    }
+
+    public boolean peersEnabled() {
+        return getBoolean("peers.enabled", false);
+    }
+
+    public int peerDiscoveryPort() {
+        return getInt("peers.discoveryPort", 45123, 1024, 65535);
+    }
+
+    public int peerPort() {
+        return getInt("peers.port", 0, 0, 65535);
+    }
+
+    public boolean verifyHashes() {
+        return getBoolean("planning.verifyHashes", true);
+    }
+
+    public boolean storeEnabled() {
+        return getBoolean("store.enabled", false);
+    }
+
+    public Path storeDirectory() {
+        String value = properties.getProperty("store.directory");
+        if (value != null && !value.isBlank()) {
+            return Path.of(value.trim());
+        }
+        return Path.of(System.getProperty("user.home"), ".automodpackupdater", "store");
+    }
+
+    public long storeMaxBytes() {
+        return getInt("store.maxSizeMb", 4096, 0, Integer.MAX_VALUE) * 1024L * 1024L;
+    }
+
+    public List<String> providerHosts(String provider) {
+        String value = properties.getProperty("providers." + provider + ".hosts");
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        List<String> hosts = new ArrayList<>();
+        for (String host : value.split(",")) {
+            if (!host.isBlank()) {
+                hosts.add(host.trim());
+            }
+        }
+        return hosts;
+    }
+
+    private boolean getBoolean(String key, boolean defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    private int getInt(String key, int defaultValue, int min, int max) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(min, Math.min(max, Integer.parseInt(value.trim())));
+        } catch (NumberFormatException e) {
+            ModPackUpdater.LOGGER.warn("Invalid value for setting {}: {}", key, value);
+            return defaultValue;
+        }
+    }
+}
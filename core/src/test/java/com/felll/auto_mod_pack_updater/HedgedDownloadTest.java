@@ -0,0 +1,134 @@
+package com.felll.auto_mod_pack_updater;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpExchange;
+
+class HedgedDownloadTest {
+
+    private static final String ETAG = "\"v1\"";
+    private static final byte[] JAR = TestFiles.content(400_000, 4);
+
+    @TempDir
+    Path mods;
+
+    private static HedgePolicy armedPolicy() {
+        HedgePolicy policy = new HedgePolicy(90);
+        for (int i = 0; i < 8; i++) {
+            policy.record(0, 1 << 20, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return policy;
+    }
+
+    private static void trickle(HttpExchange exchange, byte[] content) throws IOException {
+        exchange.getResponseHeaders().set("ETag", ETAG);
+        exchange.sendResponseHeaders(200, content.length);
+        OutputStream out = exchange.getResponseBody();
+        for (int i = 0; i < content.length; i += 4000) {
+            out.write(content, i, Math.min(4000, content.length - i));
+            out.flush();
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+        }
+    }
+
+    private void download(TestServer server, HedgePolicy hedging, byte[] content) throws IOException {
+        DownloadContext context = new DownloadContext(null, null, DownloadContext.DEFAULT_MIN_BUFFER,
+                DownloadContext.DEFAULT_MAX_BUFFER, null, null, null, hedging, null, null, null, null, null);
+        DownloadTask task = new DownloadTask("a.jar", server.url("/a.jar"), content.length,
+                TestFiles.sha256(content), null);
+        ModPackUpdater.downloadFile(task, mods.resolve("a.jar"), context, ProgressTracker.Slot.reporting(null));
+    }
+
+    private void assertInstalled(byte[] content) throws IOException {
+        assertArrayEquals(content, Files.readAllBytes(mods.resolve("a.jar")));
+        try (var files = Files.list(mods)) {
+            assertEquals(List.of("a.jar"), files.map(p -> p.getFileName().toString()).toList());
+        }
+    }
+
+    @Test
+    void slowTransferIsTakenOverByRangedHedge() throws IOException {
+        AtomicInteger count = new AtomicInteger();
+        long start = System.nanoTime();
+        try (TestServer server = new TestServer(exchange -> {
+            if (count.incrementAndGet() == 1) {
+                trickle(exchange, JAR);
+            } else {
+                TestServer.sendRange(exchange, JAR, ETAG);
+            }
+        })) {
+            download(server, armedPolicy(), JAR);
+            List<TestServer.Request> requests = server.requests();
+            assertEquals(2, requests.size());
+            assertNull(requests.get(0).range());
+            assertTrue(requests.get(1).range().startsWith("bytes="));
+            assertEquals(ETAG, requests.get(1).ifRange());
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 8,
+                "the trickling response alone would take 10 s");
+        assertInstalled(JAR);
+    }
+
+    @Test
+    void hedgeIgnoringRangeRestartsFromZero() throws IOException {
+        AtomicInteger count = new AtomicInteger();
+        try (TestServer server = new TestServer(exchange -> {
+            if (count.incrementAndGet() == 1) {
+                trickle(exchange, JAR);
+            } else {
+                TestServer.send(exchange, 200, JAR);
+            }
+        })) {
+            download(server, armedPolicy(), JAR);
+            assertEquals(2, server.requests().size());
+        }
+        assertInstalled(JAR);
+    }
+
+    @Test
+    void unarmedPolicyNeverHedges() throws IOException {
+        byte[] small = TestFiles.content(60_000, 5);
+        try (TestServer server = new TestServer(exchange -> trickle(exchange, small))) {
+            download(server, new HedgePolicy(90), small);
+            assertEquals(1, server.requests().size());
+        }
+        assertInstalled(small);
+    }
+
+    @Test
+    void spillFileIsRemovedWhenPrimaryFinishesFirst() throws IOException {
+        byte[] small = TestFiles.content(60_000, 6);
+        AtomicInteger count = new AtomicInteger();
+        try (TestServer server = new TestServer(exchange -> {
+            if (count.incrementAndGet() == 1) {
+                trickle(exchange, small);
+            } else {
+                trickle(exchange, JAR);
+            }
+        })) {
+            download(server, armedPolicy(), small);
+        }
+        assertFalse(Files.exists(mods.resolve("a.jar.hedge.part")));
+        assertInstalled(small);
+    }
+}
@@ -0,0 +1,77 @@
+package com.felll.auto_mod_pack_updater;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class HttpTransportTest {
+
+    private static final byte[] BODY = TestFiles.content(10_000, 2);
+
+    private static byte[] get(TestServer server, TrafficStats traffic) throws IOException {
+        HttpResponse<InputStream> response = HttpTransport.send(
+                HttpTransport.request(server.url("/a.jar"), Duration.ofSeconds(5)).build(), traffic);
+        try (InputStream in = HttpTransport.body(response, Duration.ofSeconds(5), traffic)) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    void sequentialRequestsReuseOneConnection() throws IOException {
+        List<Integer> clientPorts = new CopyOnWriteArrayList<>();
+        try (TestServer server = new TestServer(exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            TestServer.send(exchange, 200, BODY);
+        })) {
+            for (int i = 0; i < 3; i++) {
+                assertArrayEquals(BODY, get(server, null));
+            }
+        }
+        assertEquals(3, clientPorts.size());
+        assertEquals(1, clientPorts.stream().distinct().count());
+    }
+
+    @Test
+    void trafficIsCountedPerHost() throws IOException {
+        TrafficStats traffic = new TrafficStats();
+        try (TestServer server = new TestServer(exchange -> TestServer.send(exchange, 200, BODY))) {
+            get(server, traffic);
+            get(server, traffic);
+        }
+        TrafficStats.HostStats stats = traffic.hostStats().get("127.0.0.1");
+        assertEquals(2, stats.requests());
+        assertEquals(2L * BODY.length, stats.bytes());
+        assertEquals(2L * BODY.length, traffic.totalBytes());
+    }
+
+    @Test
+    void stalledBodyTimesOut() throws IOException {
+        try (TestServer server = new TestServer(exchange -> {
+            exchange.sendResponseHeaders(200, BODY.length);
+            exchange.getResponseBody().write(BODY, 0, 100);
+            exchange.getResponseBody().flush();
+            try {
+                TimeUnit.SECONDS.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        })) {
+            HttpResponse<InputStream> response = HttpTransport.send(
+                    HttpTransport.request(server.url("/a.jar"), Duration.ofSeconds(5)).build(), null);
+            try (InputStream in = HttpTransport.body(response, Duration.ofMillis(200), null)) {
+                assertThrows(HttpTimeoutException.class, in::readAllBytes);
+            }
+        }
+    }
+}
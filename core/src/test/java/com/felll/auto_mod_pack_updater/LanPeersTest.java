@@ -0,0 +1,150 @@
+package com.felll.auto_mod_pack_updater;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LanPeersTest {
+
+    private static final String READY = "sharing";
+    private static final long DISCOVERY_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(15);
+
+    @TempDir
+    Path root;
+
+    private final List<Process> seeders = new ArrayList<>();
+
+    public static final class Seeder {
+
+        private Seeder() {
+        }
+
+        public static void main(String[] args) throws IOException {
+            if (!ModPackUpdater.startPeerSharing(Path.of(args[0]))) {
+                System.exit(1);
+            }
+            System.out.println(READY);
+            System.out.flush();
+            System.in.transferTo(OutputStream.nullOutputStream());
+            System.exit(0);
+        }
+    }
+
+    @AfterEach
+    void stopSeeders() throws InterruptedException {
+        for (Process seeder : seeders) {
+            seeder.destroy();
+            seeder.waitFor(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static byte[] content(String name) {
+        return TestFiles.content(200_000, name.hashCode());
+    }
+
+    private Path game(String name, String settings, String repositoryUrl) throws IOException {
+        Path game = TestFiles.gameDirectory(root.resolve(name), settings);
+        Files.writeString(ConfigLoader.getConfigPath(game), repositoryUrl + "\n");
+        return game;
+    }
+
+    private static List<RemoteMod> mods(String base, String... names) {
+        List<RemoteMod> mods = new ArrayList<>();
+        for (String name : names) {
+            byte[] bytes = content(name);
+            mods.add(new RemoteMod(name, base + "mods/" + name, "sha256:" + TestFiles.sha256(bytes), bytes.length));
+        }
+        return mods;
+    }
+
+    private static void install(Path game, List<RemoteMod> mods, UpdateReport report) throws IOException {
+        ModPackUpdater.installPlan(game, mods, ModPackUpdater.planUpdate(game, mods), null, report);
+    }
+
+    private void startSeeder(Path game) throws IOException {
+        Process seeder = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), Seeder.class.getName(), game.toString())
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        seeders.add(seeder);
+        BufferedReader out = new BufferedReader(new InputStreamReader(seeder.getInputStream(),
+                StandardCharsets.UTF_8));
+        assertEquals(READY, out.readLine(), "seeder process did not start sharing");
+    }
+
+    private void awaitPeerWith(LanPeers lan, String name) throws IOException, InterruptedException {
+        byte[] bytes = content(name);
+        DownloadTask task = new DownloadTask(name, "http://127.0.0.1:1/" + name, bytes.length,
+                TestFiles.sha256(bytes), null);
+        Path part = Files.createDirectories(root.resolve("probe")).resolve(name + ".part");
+        long deadline = System.nanoTime() + DISCOVERY_TIMEOUT_NANOS;
+        HashCache.Entry fetched = null;
+        while (fetched == null && System.nanoTime() < deadline) {
+            fetched = lan.fetch(task, part, DownloadContext.NONE, ProgressTracker.Slot.reporting(null));
+            if (fetched == null) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+        }
+        assertNotNull(fetched, "no peer process offered " + name);
+        assertArrayEquals(bytes, Files.readAllBytes(part));
+    }
+
+    @Test
+    void jarsComeFromPeerProcessesInsteadOfTheOrigin() throws Exception {
+        String settings = "store.enabled=false\npeers.enabled=true\npeers.discoveryPort="
+                + ThreadLocalRandom.current().nextInt(40_000, 50_000) + "\n";
+        try (TestServer origin = new TestServer(exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            TestServer.sendRange(exchange, content(path.substring(path.lastIndexOf('/') + 1)), "\"v1\"");
+        })) {
+            String base = origin.url("/pack/");
+            Path first = game("first", "store.enabled=false\n", base);
+            Path second = game("second", "store.enabled=false\n", base);
+            install(first, mods(base, "a.jar"), new UpdateReport(base));
+            install(second, mods(base, "b.jar"), new UpdateReport(base));
+            Files.writeString(ConfigLoader.getConfigDirectory(first).resolve("settings.properties"), settings);
+            Files.writeString(ConfigLoader.getConfigDirectory(second).resolve("settings.properties"), settings);
+            startSeeder(first);
+            startSeeder(second);
+            int seeded = origin.requests().size();
+
+            Path client = game("client", settings, base);
+            LanPeers lan = LanPeers.start(client, ConfigLoader.loadSettings(client));
+            assertNotNull(lan);
+            awaitPeerWith(lan, "a.jar");
+            awaitPeerWith(lan, "b.jar");
+            UpdateReport report = new UpdateReport(base);
+            install(client, mods(base, "a.jar", "b.jar"), report);
+
+            assertEquals(seeded, origin.requests().size(), "no jar should be fetched from the origin");
+            report.finish("updated", null);
+            report.write(client);
+            String json = Files.readString(ConfigLoader.getConfigDirectory(client).resolve("update-report.json"));
+            assertEquals(2, json.split("\"peer\"", -1).length - 1);
+        }
+        Path mods = root.resolve("client").resolve("mods");
+        for (String name : List.of("a.jar", "b.jar")) {
+            assertArrayEquals(content(name), Files.readAllBytes(mods.resolve(name)), name);
+        }
+        try (var files = Files.list(mods)) {
+            assertEquals(List.of("a.jar", "b.jar"), files.filter(Files::isRegularFile)
+                    .map(p -> p.getFileName().toString()).sorted().toList());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.felll.auto_mod_pack_updater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+
+class ListingPaginationTest {
+
+    private static final int PAGES = 4;
+
+    private static byte[] page(int page) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 3; i++) {
+            json.append(i > 0 ? "," : "").append("{\"type\":\"blob\",\"path\":\"mods/p").append(page).append('_')
+                    .append(i).append(".jar\",\"id\":\"").append(String.valueOf(page).repeat(40)).append("\"}");
+        }
+        return json.append("]").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int pageOf(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                if (param.startsWith("page=")) {
+                    return Integer.parseInt(param.substring("page=".length()));
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static List<String> expected() {
+        List<String> names = new ArrayList<>();
+        for (int p = 1; p <= PAGES; p++) {
+            for (int i = 0; i < 3; i++) {
+                names.add("p" + p + "_" + i + ".jar");
+            }
+        }
+        return names;
+    }
+
+    private static List<String> list(TestServer server) throws IOException {
+        ResolvedRepo repo = new ResolvedRepo("gitlab", "127.0.0.1", "felll", "pack", "main", server.url("/raw/"),
+                "mods", server.url("/tree?per_page=3"), "application/json");
+        return ModsFolderFetcher.fetchFromFolder(repo, null, null).stream()
+                .map(ModsFolderFetcher.ListedFile::name).toList();
+    }
+
+    @Test
+    void followsLinkHeaderNextRelation() throws IOException {
+        try (TestServer server = new TestServer(exchange -> {
+            int page = pageOf(exchange);
+            if (page < PAGES) {
+                exchange.getResponseHeaders().set("Link", "</tree?per_page=3&page=" + (page + 1)
+                        + ">; rel=\"next\", </tree?per_page=3&page=1>; rel=\"first\"");
+            }
+            TestServer.send(exchange, 200, page(page));
+        })) {
+            assertEquals(expected(), list(server));
+            assertEquals(PAGES, server.requests().size());
+        }
+    }
+
+    @Test
+    void followsXNextPageHeader() throws IOException {
+        try (TestServer server = new TestServer(exchange -> {
+            int page = pageOf(exchange);
+            exchange.getResponseHeaders().set("X-Next-Page", page < PAGES ? String.valueOf(page + 1) : "");
+            TestServer.send(exchange, 200, page(page));
+        })) {
+            assertEquals(expected(), list(server));
+            assertEquals(PAGES, server.requests().size());
+        }
+    }
+
+    @Test
+    void knownPageCountFetchesRemainingPagesConcurrently() throws IOException {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        try (TestServer server = new TestServer(exchange -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                TimeUnit.MILLISECONDS.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            exchange.getResponseHeaders().set("X-Total-Pages", String.valueOf(PAGES));
+            TestServer.send(exchange, 200, page(pageOf(exchange)));
+        })) {
+            assertEquals(expected(), list(server));
+            assertEquals(PAGES, server.requests().size());
+        }
+        assertTrue(peak.get() > 1, "pages 2.." + PAGES + " should be requested in parallel");
+    }
+
+    @Test
+    void lastPageFromLinkHeader() {
+        assertEquals(7, ModsFolderFetcher.parseLastPage(
+                "<https://h/tree?page=2>; rel=\"next\", <https://h/tree?per_page=3&page=7>; rel=\"last\""));
+        assertEquals(0, ModsFolderFetcher.parseLastPage("<https://h/tree?page=2>; rel=\"next\""));
+        assertEquals("https://h/api/tree?page=3",
+                ModsFolderFetcher.parseNextLink("https://h/api/tree?page=2", "</api/tree?page=3>; rel=next"));
+    }
+
+    @Test
+    void withPageReplacesExistingPageParameter() {
+        assertEquals("https://h/tree?per_page=3&page=5", ModsFolderFetcher.withPage("https://h/tree?per_page=3", 5));
+        assertEquals("https://h/tree?per_page=3&page=5",
+                ModsFolderFetcher.withPage("https://h/tree?page=2&per_page=3", 5));
+        assertEquals("https://h/tree?page=2", ModsFolderFetcher.withPage("https://h/tree", 2));
+    }
+}
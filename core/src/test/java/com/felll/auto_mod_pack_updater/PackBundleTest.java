@@ -0,0 +1,134 @@
+package com.felll.auto_mod_pack_updater;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PackBundleTest {
+
+    private static final int FILES = 8;
+
+    @TempDir
+    Path game;
+
+    private final List<String> names = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        TestFiles.gameDirectory(game, "store.enabled=false\nbundle.enabled=true\n");
+        for (int i = 0; i < FILES; i++) {
+            names.add("m" + i + ".jar");
+        }
+    }
+
+    private static byte[] content(String name) {
+        return TestFiles.content(50_000 + name.length(), name.hashCode());
+    }
+
+    private byte[] bundle(String corrupt, String missing) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("mods/"));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("README.txt"));
+            zip.write(new byte[] {'h', 'i'});
+            zip.closeEntry();
+            for (String name : names) {
+                if (!name.equals(missing)) {
+                    zip.putNextEntry(new ZipEntry("mods/" + name));
+                    zip.write(name.equals(corrupt) ? new byte[10] : content(name));
+                    zip.closeEntry();
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<String> install(TestServer server) throws IOException {
+        String base = server.url("/pack/");
+        Files.writeString(ConfigLoader.getConfigPath(game), base + "\n");
+        List<RemoteMod> mods = new ArrayList<>();
+        for (String name : names) {
+            byte[] bytes = content(name);
+            mods.add(new RemoteMod(name, base + "mods/" + name, "sha256:" + TestFiles.sha256(bytes), bytes.length));
+        }
+        ModPackUpdater.installPlan(game, mods, ModPackUpdater.planUpdate(game, mods), null, new UpdateReport(base));
+        return server.requests().stream().map(TestServer.Request::path).sorted().toList();
+    }
+
+    private void assertInstalled() throws IOException {
+        Path mods = game.resolve("mods");
+        for (String name : names) {
+            assertArrayEquals(content(name), Files.readAllBytes(mods.resolve(name)), name);
+        }
+        try (var files = Files.list(mods)) {
+            assertEquals(names, files.filter(Files::isRegularFile).map(p -> p.getFileName().toString()).sorted()
+                    .toList());
+        }
+        assertEquals(names.size(), ModPackUpdater.loadManagedMods(game).size());
+    }
+
+    @Test
+    void bundleEntriesThatVerifyAreInstalledAndTheRestDownloadedSingly() throws IOException {
+        byte[] zip = bundle("m4.jar", "m7.jar");
+        try (TestServer server = new TestServer(exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            TestServer.send(exchange, 200,
+                    path.endsWith("/mods.zip") ? zip : content(path.substring(path.lastIndexOf('/') + 1)));
+        })) {
+            assertEquals(List.of("/pack/mods.zip", "/pack/mods/m4.jar", "/pack/mods/m7.jar"), install(server));
+        }
+        assertInstalled();
+    }
+
+    @Test
+    void missingBundleFallsBackToIndividualDownloads() throws IOException {
+        try (TestServer server = new TestServer(exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/mods.zip")) {
+                TestServer.send(exchange, 404, new byte[0]);
+            } else {
+                TestServer.send(exchange, 200, content(path.substring(path.lastIndexOf('/') + 1)));
+            }
+        })) {
+            List<String> requested = install(server);
+            assertEquals(FILES + 1, requested.size());
+            assertEquals("/pack/mods.zip", requested.get(0));
+        }
+        assertInstalled();
+    }
+
+    @Test
+    void fewMissingFilesSkipTheBundle() throws IOException {
+        byte[] zip = bundle(null, null);
+        try (TestServer server = new TestServer(exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            TestServer.send(exchange, 200,
+                    path.endsWith("/mods.zip") ? zip : content(path.substring(path.lastIndexOf('/') + 1)));
+        })) {
+            install(server);
+            Files.delete(game.resolve("mods").resolve("m2.jar"));
+            assertEquals(List.of("/pack/mods.zip", "/pack/mods/m2.jar"), install(server));
+        }
+        assertInstalled();
+    }
+
+    @Test
+    void bundleUrlSitsNextToTheModsFolder() {
+        assertEquals("https://h/pack/mods.zip", PackBundle.urlFor("https://h/pack/mods/"));
+        assertEquals("https://h/pack/mods.zip", PackBundle.urlFor("https://h/pack/mods"));
+        assertEquals("https://h/pack/files/mods.zip", PackBundle.urlFor("https://h/pack/files"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.felll.auto_mod_pack_updater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+
+class RepoUrlParserTest {
+
+    @Test
+    void githubRepoDefaultsToMainBranch() {
+        RepoUrlParser.BaseUrlInfo info = RepoUrlParser.parse("https://github.com/felll/pack");
+        assertEquals("https://raw.githubusercontent.com/felll/pack/main/", info.baseUrl());
+        assertEquals("github", info.provider());
+    }
+
+    @Test
+    void githubTreeUrlKeepsBranchAndDropsGitSuffix() {
+        RepoUrlParser.RepoInfo info = RepoUrlParser.parseForApi("https://github.com/felll/pack.git/tree/release");
+        assertEquals("felll", info.owner());
+        assertEquals("pack", info.repo());
+        assertEquals("release", info.branch());
+        assertEquals("github.com", info.host());
+    }
+
+    @Test
+    void githubRawUrlKeepsSubPath() {
+        ResolvedRepo repo = ProviderRegistry.DEFAULT
+                .resolve("https://raw.githubusercontent.com/felll/pack/dev/packs/survival/");
+        assertEquals("https://raw.githubusercontent.com/felll/pack/dev/packs/survival/", repo.rawBaseUrl());
+        assertEquals("packs/survival/mods", repo.modsPath());
+        assertEquals("https://api.github.com/repos/felll/pack/git/trees/dev?recursive=1", repo.listingUrl());
+    }
+
+    @Test
+    void gitlabNestedGroupsAndRawSubPath() {
+        ResolvedRepo repo = ProviderRegistry.DEFAULT
+                .resolve("https://gitlab.com/group/sub/pack/-/raw/stable/client/");
+        assertEquals("gitlab", repo.provider());
+        assertEquals("group/sub", repo.owner());
+        assertEquals("pack", repo.repo());
+        assertEquals("stable", repo.branch());
+        assertEquals("https://gitlab.com/group/sub/pack/-/raw/stable/client/", repo.rawBaseUrl());
+        assertEquals("https://gitlab.com/api/v4/projects/group%2Fsub%2Fpack/repository/tree"
+                + "?path=client%2Fmods&ref=stable&recursive=true&per_page=100", repo.listingUrl());
+    }
+
+    @Test
+    void codebergSrcUrlKeepsRefKind() {
+        ResolvedRepo repo = ProviderRegistry.DEFAULT.resolve("https://codeberg.org/felll/pack/src/tag/v2");
+        assertEquals("codeberg", repo.provider());
+        assertEquals("v2", repo.branch());
+        assertEquals("https://codeberg.org/felll/pack/raw/tag/v2/", repo.rawBaseUrl());
+    }
+
+    @Test
+    void sourcehutHasNoListing() {
+        ResolvedRepo repo = ProviderRegistry.DEFAULT.resolve("https://git.sr.ht/~felll/pack");
+        assertEquals("https://git.sr.ht/~felll/pack/blob/main/", repo.rawBaseUrl());
+        assertFalse(repo.hasListing());
+        assertNull(RepoUrlParser.parseForApi("https://git.sr.ht/~felll/pack"));
+    }
+
+    @Test
+    void hostLookupIgnoresCase() {
+        assertEquals("github", RepoUrlParser.parse("https://GitHub.com/felll/pack").provider());
+    }
+
+    @Test
+    void unknownHostIsGenericBaseUrl() {
+        RepoUrlParser.BaseUrlInfo info = RepoUrlParser.parse("https://example.com/packs/survival");
+        assertEquals("https://example.com/packs/survival/", info.baseUrl());
+        assertEquals("generic", info.provider());
+    }
+
+    @Test
+    void knownHostWithoutRepoFallsBackToGeneric() {
+        assertEquals("generic", RepoUrlParser.parse("https://github.com/felll").provider());
+    }
+
+    @Test
+    void nonHttpUrlIsRejected() {
+        assertNull(RepoUrlParser.parse("ftp://example.com/pack"));
+        assertNull(RepoUrlParser.parse("github.com/felll/pack"));
+    }
+
+    @Test
+    void selfHostedGiteaFromSettings() {
+        Properties properties = new Properties();
+        properties.setProperty("providers.gitea.hosts", "git.example.org");
+        ProviderRegistry registry = ProviderRegistry.fromSettings(new UpdaterSettings(properties));
+        ResolvedRepo repo = registry.resolve("https://git.example.org/team/pack");
+        assertEquals("gitea", repo.provider());
+        assertTrue(repo.hasListing());
+        assertEquals("https://git.example.org/api/v1/repos/team/pack/git/trees/main?recursive=true",
+                repo.listingUrl());
+        assertEquals("generic", ProviderRegistry.DEFAULT.resolve("https://git.example.org/team/pack").provider());
+    }
+}
@@ -0,0 +1,114 @@
+package com.felll.auto_mod_pack_updater;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ResumableDownloadTest {
+
+    private static final String ETAG = "\"v1\"";
+    private static final byte[] JAR = TestFiles.content(200_000, 1);
+
+    @TempDir
+    Path mods;
+
+    private void download(TestServer server, long size, String sha256) throws IOException {
+        DownloadTask task = new DownloadTask("a.jar", server.url("/a.jar"), size, sha256, null);
+        ModPackUpdater.downloadFile(task, mods.resolve("a.jar"), DownloadContext.NONE,
+                ProgressTracker.Slot.reporting(null));
+    }
+
+    private void writePart(byte[] bytes, String validator) throws IOException {
+        Files.write(mods.resolve("a.jar.part"), bytes);
+        Files.writeString(mods.resolve("a.jar.part.validator"), validator);
+    }
+
+    private void assertInstalled() throws IOException {
+        assertArrayEquals(JAR, Files.readAllBytes(mods.resolve("a.jar")));
+        assertFalse(Files.exists(mods.resolve("a.jar.part")));
+        assertFalse(Files.exists(mods.resolve("a.jar.part.validator")));
+    }
+
+    @Test
+    void resumesPartWhoseValidatorStillMatches() throws IOException {
+        writePart(Arrays.copyOf(JAR, 50_000), ETAG);
+        try (TestServer server = new TestServer(exchange -> TestServer.sendRange(exchange, JAR, ETAG))) {
+            download(server, JAR.length, TestFiles.sha256(JAR));
+            assertEquals(List.of(new TestServer.Request("/a.jar", "bytes=50000-", ETAG)), server.requests());
+        }
+        assertInstalled();
+    }
+
+    @Test
+    void restartsWhenTheRemoteFileChanged() throws IOException {
+        writePart(new byte[50_000], "\"old\"");
+        try (TestServer server = new TestServer(exchange -> TestServer.sendRange(exchange, JAR, ETAG))) {
+            download(server, JAR.length, TestFiles.sha256(JAR));
+            assertEquals(1, server.requests().size());
+        }
+        assertInstalled();
+    }
+
+    @Test
+    void partWithoutValidatorIsNotResumed() throws IOException {
+        Files.write(mods.resolve("a.jar.part"), Arrays.copyOf(JAR, 50_000));
+        try (TestServer server = new TestServer(exchange -> TestServer.sendRange(exchange, JAR, ETAG))) {
+            download(server, JAR.length, TestFiles.sha256(JAR));
+            assertNull(server.requests().get(0).range());
+        }
+        assertInstalled();
+    }
+
+    @Test
+    void rangeNotSatisfiableAcceptsCompletePartThatVerifies() throws IOException {
+        writePart(JAR, ETAG);
+        try (TestServer server = new TestServer(exchange -> TestServer.sendRange(exchange, JAR, ETAG))) {
+            download(server, -1, TestFiles.sha256(JAR));
+            assertEquals(List.of(new TestServer.Request("/a.jar", "bytes=200000-", ETAG)), server.requests());
+        }
+        assertInstalled();
+    }
+
+    @Test
+    void rangeNotSatisfiableRejectsCompletePartThatFailsVerification() throws IOException {
+        byte[] corrupt = JAR.clone();
+        corrupt[10] ^= 1;
+        writePart(corrupt, ETAG);
+        try (TestServer server = new TestServer(exchange -> TestServer.sendRange(exchange, JAR, ETAG))) {
+            assertThrows(IOException.class, () -> download(server, -1, TestFiles.sha256(JAR)));
+        }
+        assertFalse(Files.exists(mods.resolve("a.jar")));
+        assertFalse(Files.exists(mods.resolve("a.jar.part")));
+    }
+
+    @Test
+    void rangeNotSatisfiableWithNothingToVerifyRestarts() throws IOException {
+        writePart(new byte[1000], ETAG);
+        try (TestServer server = new TestServer(exchange -> {
+            if (exchange.getRequestHeaders().getFirst("Range") != null) {
+                TestServer.send(exchange, 416, new byte[0]);
+            } else {
+                TestServer.send(exchange, 200, JAR);
+            }
+        })) {
+            download(server, -1, null);
+            List<TestServer.Request> requests = server.requests();
+            assertEquals(2, requests.size());
+            assertEquals("bytes=1000-", requests.get(0).range());
+            assertNull(requests.get(1).range());
+        }
+        assertArrayEquals(JAR, Files.readAllBytes(mods.resolve("a.jar")));
+        assertFalse(Files.exists(mods.resolve("a.jar.part")));
+    }
+}
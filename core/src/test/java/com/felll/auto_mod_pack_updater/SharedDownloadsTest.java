@@ -0,0 +1,125 @@
+package com.felll.auto_mod_pack_updater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SharedDownloadsTest {
+
+    private static final int INSTANCES = 4;
+
+    @TempDir
+    Path root;
+
+    private final SharedDownloads shared = new SharedDownloads();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final CountDownLatch firstFetchStarted = new CountDownLatch(1);
+
+    private interface Body {
+        void fetch(int attempt, Path target) throws IOException;
+    }
+
+    private Map<Integer, String> runInstances(DownloadTask task, Body body) throws Exception {
+        Map<Integer, String> results = new ConcurrentHashMap<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            int instance = i;
+            Path target = Files.createDirectories(root.resolve("instance" + i)).resolve(task.filename());
+            threads.add(Thread.ofVirtual().start(() -> {
+                try {
+                    shared.download(task, target, DownloadContext.NONE, () -> {
+                        int attempt = fetches.incrementAndGet();
+                        firstFetchStarted.countDown();
+                        body.fetch(attempt, target);
+                    });
+                    results.put(instance, Files.readString(target));
+                } catch (IOException e) {
+                    results.put(instance, "failed: " + e.getMessage());
+                }
+            }));
+            if (i == 0) {
+                firstFetchStarted.await();
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return new TreeMap<>(results);
+    }
+
+    private static void slowly() throws IOException {
+        try {
+            TimeUnit.MILLISECONDS.sleep(300);
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        }
+    }
+
+    private static DownloadTask task(String sha256) {
+        return new DownloadTask("x.jar", "http://h/x.jar", 5, sha256, null);
+    }
+
+    @Test
+    void concurrentInstancesFetchOnce() throws Exception {
+        Map<Integer, String> results = runInstances(task("abc"), (attempt, target) -> {
+            slowly();
+            Files.writeString(target, "hello");
+        });
+        assertEquals(1, fetches.get());
+        assertEquals(Map.of(0, "hello", 1, "hello", 2, "hello", 3, "hello"), results);
+    }
+
+    @Test
+    void failedFetchIsHandedToOneWaiter() throws Exception {
+        Map<Integer, String> results = runInstances(task("abc"), (attempt, target) -> {
+            slowly();
+            if (attempt == 1) {
+                throw new IOException("origin down");
+            }
+            Files.writeString(target, "hello");
+        });
+        assertEquals(2, fetches.get());
+        assertEquals(Map.of(0, "failed: origin down", 1, "hello", 2, "hello", 3, "hello"), results);
+    }
+
+    @Test
+    void sourceOfWrongSizeIsNotReused() throws Exception {
+        Map<Integer, String> results = runInstances(task("abc"), (attempt, target) -> {
+            slowly();
+            Files.writeString(target, attempt == 1 ? "torn" : "hello");
+        });
+        assertEquals(INSTANCES, fetches.get());
+        assertEquals(Map.of(0, "torn", 1, "hello", 2, "hello", 3, "hello"), results);
+    }
+
+    @Test
+    void differentContentIsNotShared() throws Exception {
+        Path a = Files.createDirectories(root.resolve("a")).resolve("x.jar");
+        Path b = Files.createDirectories(root.resolve("b")).resolve("x.jar");
+        shared.download(task("abc"), a, DownloadContext.NONE, () -> {
+            fetches.incrementAndGet();
+            Files.writeString(a, "hello");
+        });
+        shared.download(task("def"), b, DownloadContext.NONE, () -> {
+            fetches.incrementAndGet();
+            Files.writeString(b, "world");
+        });
+        assertEquals(2, fetches.get());
+        assertEquals("world", Files.readString(b, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,37 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Random;
+
+final class TestFiles {
+
+    private TestFiles() {
+    }
+
+    static byte[] content(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static Path gameDirectory(Path root, String settings) throws IOException {
+        Files.createDirectories(root.resolve("mods"));
+        Path configDir = ConfigLoader.getConfigDirectory(root);
+        Files.createDirectories(configDir);
+        Files.writeString(configDir.resolve("settings.properties"), settings);
+        return root;
+    }
+}
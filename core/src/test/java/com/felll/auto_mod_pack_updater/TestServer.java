@@ -0,0 +1,78 @@
+package com.felll.auto_mod_pack_updater;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+final class TestServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final List<Request> requests = new CopyOnWriteArrayList<>();
+
+    record Request(String path, String range, String ifRange) {
+    }
+
+    TestServer(HttpHandler handler) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.add(new Request(exchange.getRequestURI().getPath(),
+                    exchange.getRequestHeaders().getFirst("Range"), exchange.getRequestHeaders().getFirst("If-Range")));
+            try {
+                handler.handle(exchange);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    List<Request> requests() {
+        return new ArrayList<>(requests);
+    }
+
+    static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    static void sendRange(HttpExchange exchange, byte[] content, String etag) throws IOException {
+        exchange.getResponseHeaders().set("ETag", etag);
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        if (range == null || ifRange != null && !ifRange.equals(etag)) {
+            send(exchange, 200, content);
+            return;
+        }
+        int from = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+        if (from >= content.length) {
+            exchange.getResponseHeaders().set("Content-Range", "bytes */" + content.length);
+            send(exchange, 416, new byte[0]);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Range",
+                "bytes " + from + "-" + (content.length - 1) + "/" + content.length);
+        byte[] tail = new byte[content.length - from];
+        System.arraycopy(content, from, tail, 0, tail.length);
+        send(exchange, 206, tail);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,75 @@
+package com.felll.auto_mod_pack_updater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TreeListingTest {
+
+    private static final String SHA = "0123456789abcdef0123456789abcdef01234567";
+
+    private static ModsFolderFetcher.TreePage parse(String json, String modsPath) throws IOException {
+        return ModsFolderFetcher.parseTree(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), modsPath);
+    }
+
+    @Test
+    void githubTreeKeepsOnlyJarBlobsDirectlyInMods() throws IOException {
+        ModsFolderFetcher.TreePage page = parse("""
+                {"sha":"x","url":"u","tree":[
+                  {"path":"mods","type":"tree","sha":"%1$s"},
+                  {"path":"mods/a.jar","type":"blob","sha":"%2$s","size":1234},
+                  {"path":"mods/B.JAR","type":"blob","sha":"%1$s"},
+                  {"path":"mods/readme.txt","type":"blob","sha":"%1$s","size":5},
+                  {"path":"mods/old/c.jar","type":"blob","sha":"%1$s","size":5},
+                  {"path":"config/d.jar","type":"blob","sha":"%1$s","size":5}
+                ],"truncated":false}
+                """.formatted(SHA, SHA.toUpperCase()), "mods");
+        assertEquals(List.of(new ModsFolderFetcher.ListedFile("a.jar", SHA, 1234),
+                new ModsFolderFetcher.ListedFile("B.JAR", SHA, -1)), page.files());
+        assertFalse(page.truncated());
+        assertEquals(0, page.totalPages());
+    }
+
+    @Test
+    void subPathPackUsesItsOwnModsFolder() throws IOException {
+        ModsFolderFetcher.TreePage page = parse("""
+                [{"id":"%1$s","path":"client/mods/a.jar","type":"blob"},
+                 {"id":"%1$s","path":"mods/b.jar","type":"blob"}]
+                """.formatted(SHA), "client/mods");
+        assertEquals(List.of(new ModsFolderFetcher.ListedFile("a.jar", SHA, -1)), page.files());
+    }
+
+    @Test
+    void malformedShaIsDropped() throws IOException {
+        ModsFolderFetcher.TreePage page = parse("""
+                {"tree":[{"path":"mods/a.jar","type":"blob","sha":"not-a-sha"}]}
+                """, "mods");
+        assertEquals(List.of(new ModsFolderFetcher.ListedFile("a.jar", null, -1)), page.files());
+    }
+
+    @Test
+    void truncatedPagedTreeReportsPageCount() throws IOException {
+        ModsFolderFetcher.TreePage page = parse("""
+                {"tree":[{"path":"mods/a.jar","type":"blob","sha":"%1$s"},
+                         {"path":"mods/b.jar","type":"blob","sha":"%1$s"}],
+                 "truncated":true,"page":1,"total_count":5}
+                """.formatted(SHA), "mods");
+        assertTrue(page.truncated());
+        assertEquals(1, page.page());
+        assertEquals(3, page.totalPages());
+    }
+
+    @Test
+    void missingModsFolderIsAnError() {
+        IOException e = assertThrows(IOException.class, () -> parse("{\"message\":\"Not Found\"}", "mods"));
+        assertTrue(e.getMessage().contains("Not Found"));
+    }
+}
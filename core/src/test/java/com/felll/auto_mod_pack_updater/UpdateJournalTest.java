@@ -0,0 +1,124 @@
+package com.felll.auto_mod_pack_updater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class UpdateJournalTest {
+
+    @TempDir
+    Path game;
+
+    private Path mods;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        TestFiles.gameDirectory(game, "store.enabled=false\n");
+        mods = game.resolve("mods");
+    }
+
+    private static Set<String> sorted(Iterable<String> names) {
+        Set<String> set = new TreeSet<>();
+        names.forEach(set::add);
+        return set;
+    }
+
+    @Test
+    void recoveryRedoesOnlyUnfinishedSteps() throws IOException {
+        Files.writeString(mods.resolve("x.jar"), "x");
+        Files.writeString(mods.resolve("y.jar"), "y");
+        ModPackUpdater.saveManagedMods(game, Set.of("x.jar", "y.jar"));
+        byte[] b = "/b.jar".getBytes(StandardCharsets.UTF_8);
+        try (TestServer server = new TestServer(exchange -> TestServer.send(exchange, 200,
+                exchange.getRequestURI().getPath().getBytes(StandardCharsets.UTF_8)))) {
+            List<RemoteMod> install = List.of(new RemoteMod("a.jar", server.url("/a.jar")),
+                    new RemoteMod("b.jar", server.url("/b.jar"), TestFiles.sha256(b), b.length),
+                    new RemoteMod("c.jar", server.url("/c.jar")));
+            UpdateJournal journal = UpdateJournal.begin(game, install, List.of("x.jar", "y.jar"), 10);
+            Files.delete(mods.resolve("x.jar"));
+            journal.removed("x.jar");
+            Files.writeString(mods.resolve("a.jar"), "/a.jar");
+            journal.installed("a.jar");
+            Files.write(mods.resolve("b.jar"), b);
+            journal.close();
+            Files.writeString(UpdateJournal.journalPath(game), "{\"op\":\"inst", StandardOpenOption.APPEND);
+
+            ModPackUpdater.InterruptedUpdate recovered = ModPackUpdater.recoverInterruptedUpdate(game).orElseThrow();
+            assertEquals(List.of("c.jar"), recovered.plan().getToAdd());
+            assertEquals(List.of("y.jar"), recovered.plan().getToRemove());
+            assertEquals(10, recovered.plan().getPackSize());
+            assertEquals(Set.of("a.jar", "b.jar", "y.jar"), sorted(ModPackUpdater.loadManagedMods(game)));
+
+            ModPackUpdater.installPlan(game, recovered.mods(), recovered.plan(), null);
+            assertEquals(List.of(new TestServer.Request("/c.jar", null, null)), server.requests());
+        }
+        assertFalse(Files.exists(UpdateJournal.journalPath(game)));
+        assertEquals(Set.of("a.jar", "b.jar", "c.jar"), sorted(ModPackUpdater.loadManagedMods(game)));
+        assertEquals(Optional.empty(), ModPackUpdater.recoverInterruptedUpdate(game));
+    }
+
+    @Test
+    void modifiedJarIsReinstalled() throws IOException {
+        byte[] jar = TestFiles.content(1000, 3);
+        UpdateJournal journal = UpdateJournal.begin(game,
+                List.of(new RemoteMod("a.jar", "http://127.0.0.1:1/a.jar", TestFiles.sha256(jar), jar.length)),
+                List.of(), 1);
+        Files.write(mods.resolve("a.jar"), new byte[1000]);
+        journal.close();
+        ModPackUpdater.InterruptedUpdate recovered = ModPackUpdater.recoverInterruptedUpdate(game).orElseThrow();
+        assertEquals(List.of("a.jar"), recovered.plan().getToAdd());
+    }
+
+    @Test
+    void finishedJournalIsDiscarded() throws IOException {
+        Files.writeString(mods.resolve("a.jar"), "a");
+        UpdateJournal journal = UpdateJournal.begin(game, List.of(new RemoteMod("a.jar", "http://127.0.0.1:1/a.jar")),
+                List.of("gone.jar"), 1);
+        journal.installed("a.jar");
+        journal.close();
+        assertEquals(Optional.empty(), ModPackUpdater.recoverInterruptedUpdate(game));
+        assertFalse(Files.exists(UpdateJournal.journalPath(game)));
+        assertEquals(Set.of("a.jar"), sorted(ModPackUpdater.loadManagedMods(game)));
+    }
+
+    @Test
+    void journalWithoutBeginRecordIsDiscarded() throws IOException {
+        Files.writeString(UpdateJournal.journalPath(game), "{\"op\":\"install\",\"name\":\"a.jar\"}\n");
+        assertEquals(Optional.empty(), ModPackUpdater.recoverInterruptedUpdate(game));
+        assertFalse(Files.exists(UpdateJournal.journalPath(game)));
+    }
+
+    @Test
+    void committedJournalIsRemoved() {
+        UpdateJournal journal = UpdateJournal.begin(game, List.of(), List.of(), 0);
+        assertTrue(Files.exists(UpdateJournal.journalPath(game)));
+        journal.commit();
+        assertFalse(Files.exists(UpdateJournal.journalPath(game)));
+    }
+
+    @Test
+    void atomicWriteReplacesWithoutLeavingTempFiles() throws IOException {
+        Path target = game.resolve("state.json");
+        ModPackUpdater.writeAtomically(target, "first");
+        ModPackUpdater.writeAtomically(target, "second");
+        assertEquals("second", Files.readString(target));
+        try (var files = Files.list(game)) {
+            assertEquals(List.of("state.json"), files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith("state.json")).toList());
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.felll.auto_mod_pack_updater;
 
+import com.felll.auto_mod_pack_updater.client.ModPackUpdateHandler;
+
 import net.neoforged.api.distmarker.Dist;
 import net.neoforged.fml.ModContainer;
 import net.neoforged.fml.common.Mod;
+import net.neoforged.fml.loading.FMLPaths;
 
 @Mod(value = AutoModPackUpdater.MODID, dist = Dist.CLIENT)
 public class AutoModPackUpdaterClient {
 
     public AutoModPackUpdaterClient(ModContainer container) {
+        ModPackUpdateHandler.startPrefetch(FMLPaths.GAMEDIR.get());
     }
 }
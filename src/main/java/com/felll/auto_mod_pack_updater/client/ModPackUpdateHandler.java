@@ -1,18 +1,27 @@
 package com.felll.auto_mod_pack_updater.client;
 
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.felll.auto_mod_pack_updater.AutoModPackUpdater;
 import com.felll.auto_mod_pack_updater.ConfigLoader;
+import com.felll.auto_mod_pack_updater.ManifestFetcher;
 import com.felll.auto_mod_pack_updater.RepoUrlParser;
 import com.felll.auto_mod_pack_updater.ModPackUpdater;
+import com.felll.auto_mod_pack_updater.ProgressTracker;
+import com.felll.auto_mod_pack_updater.RemoteMod;
 import com.felll.auto_mod_pack_updater.UpdatePlan;
+import com.felll.auto_mod_pack_updater.UpdateReport;
 
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.screens.TitleScreen;
@@ -21,6 +30,7 @@ import net.neoforged.bus.api.EventPriority;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
 import net.neoforged.neoforge.client.event.ScreenEvent;
+import net.neoforged.neoforge.event.GameShuttingDownEvent;
 
 @EventBusSubscriber(modid = AutoModPackUpdater.MODID, value = Dist.CLIENT)
 public final class ModPackUpdateHandler {
@@ -28,11 +38,25 @@ public final class ModPackUpdateHandler {
     private static volatile boolean allowTitleScreen;
     private static volatile boolean hasRunInitialCheck;
 
-    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
-        Thread t = new Thread(r, "AutoModPackUpdater");
-        t.setDaemon(true);
-        return t;
-    });
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("AutoModPackUpdater-", 0).factory());
+
+    private static volatile Future<?> activeFlow;
+    private static volatile Future<PreparedUpdate> prefetch;
+    private static volatile String prefetchRepoUrl;
+
+    private record PreparedUpdate(List<RemoteMod> mods, UpdatePlan plan, UpdateReport report) {
+    }
+
+    public static void startPrefetch(Path gameDir) {
+        Optional<String> repoUrlOpt = ConfigLoader.loadRepositoryUrl(gameDir);
+        if (repoUrlOpt.isEmpty()) {
+            return;
+        }
+        String repoUrl = repoUrlOpt.get();
+        prefetchRepoUrl = repoUrl;
+        prefetch = EXECUTOR.submit(() -> prepareUpdate(gameDir, repoUrl, null, new UpdateReport(repoUrl)));
+    }
 
     @SubscribeEvent(priority = EventPriority.HIGHEST)
     public static void onScreenOpening(ScreenEvent.Opening event) {
@@ -56,10 +80,34 @@ public final class ModPackUpdateHandler {
             return;
         }
         String repoUrl = repoUrlOpt.get();
+        Future<PreparedUpdate> prepared = repoUrl.equals(prefetchRepoUrl) ? prefetch : null;
+        prefetch = null;
+        if (prepared != null && prepared.state() == Future.State.SUCCESS && !prepared.resultNow().plan().hasChanges()) {
+            UpdateReport report = prepared.resultNow().report();
+            report.finish("up-to-date", null);
+            EXECUTOR.submit(() -> {
+                report.write(gameDir);
+                ModPackUpdater.startPeerSharing(gameDir);
+            });
+            return;
+        }
         event.setCanceled(true);
         AtomicReference<String> statusRef = new AtomicReference<>("screen.automodpackupdater.status.fetching");
         mc.setScreen(new ModUpdaterScreen(List.of(), List.of(), false, null, null, repoUrl, statusRef));
-        EXECUTOR.submit(() -> runUpdateFlow(mc, gameDir, repoUrl, statusRef));
+        activeFlow = EXECUTOR.submit(() -> runUpdateFlow(mc, gameDir, repoUrl, statusRef, prepared));
+    }
+
+    @SubscribeEvent
+    public static void onGameShuttingDown(GameShuttingDownEvent event) {
+        Future<?> pending = prefetch;
+        if (pending != null) {
+            pending.cancel(true);
+        }
+        Future<?> flow = activeFlow;
+        if (flow != null && !flow.isDone()) {
+            AutoModPackUpdater.LOGGER.info("Game is shutting down, cancelling mod pack update");
+            flow.cancel(true);
+        }
     }
 
     public static void submitRepoUrl(String url) {
@@ -74,11 +122,11 @@ public final class ModPackUpdateHandler {
         }
         AtomicReference<String> statusRef = new AtomicReference<>("screen.automodpackupdater.status.saving");
         mc.setScreen(new ModUpdaterScreen(List.of(), List.of(), false, null, null, url, statusRef));
-        EXECUTOR.submit(() -> {
+        activeFlow = EXECUTOR.submit(() -> {
             try {
                 ConfigLoader.saveRepositoryUrl(gameDir, url);
                 statusRef.set("screen.automodpackupdater.status.fetching");
-                runUpdateFlow(mc, gameDir, url, statusRef);
+                runUpdateFlow(mc, gameDir, url, statusRef, null);
             } catch (Exception e) {
                 AutoModPackUpdater.LOGGER.error("Failed to save config", e);
                 mc.execute(() -> {
@@ -90,30 +138,100 @@ public final class ModPackUpdateHandler {
         });
     }
 
-    private static void runUpdateFlow(Minecraft mc, Path gameDir, String repoUrl, AtomicReference<String> statusRef) {
+    private static void runUpdateFlow(Minecraft mc, Path gameDir, String repoUrl, AtomicReference<String> statusRef,
+            Future<PreparedUpdate> prepared) {
+        UpdateReport report = new UpdateReport(repoUrl);
         try {
-            if (statusRef != null) {
-                statusRef.set("screen.automodpackupdater.status.fetching");
-            }
-            var mods = ModPackUpdater.fetchModsFromFolder(repoUrl);
-            if (statusRef != null) {
-                statusRef.set("screen.automodpackupdater.status.computing");
+            PreparedUpdate update = prepared != null ? awaitPrepared(prepared) : null;
+            if (update == null) {
+                update = prepareUpdate(gameDir, repoUrl, statusRef, report);
             }
-            UpdatePlan plan = ModPackUpdater.computeUpdatePlan(gameDir, mods);
+            report = update.report();
+            UpdatePlan plan = update.plan();
             if (!plan.hasChanges()) {
+                report.finish("up-to-date", null);
                 allowTitleScreen = true;
                 mc.execute(() -> mc.setScreen(new TitleScreen(false)));
+                ModPackUpdater.startPeerSharing(gameDir);
                 return;
             }
             List<String> added = new ArrayList<>(plan.getToAdd());
-            AtomicReference<DownloadProgress> progressRef = new AtomicReference<>();
-            mc.execute(() -> mc.setScreen(new ModUpdaterScreen(added, plan.getToRemove(), false, null, progressRef)));
-            ModPackUpdater.executePlan(gameDir, repoUrl, mods, plan, progressRef::set);
+            ProgressTracker tracker = new ProgressTracker();
+            mc.execute(() -> mc.setScreen(new ModUpdaterScreen(added, plan.getToRemove(), false, null, tracker)));
+            ModPackUpdater.installPlan(gameDir, update.mods(), plan, tracker, report);
+            report.finish("updated", null);
             mc.execute(() -> mc.setScreen(new ModUpdaterScreen(added, plan.getToRemove(), true, null)));
+            ModPackUpdater.startPeerSharing(gameDir);
         } catch (Exception e) {
+            if (isCancellation(e)) {
+                report.finish("cancelled", e);
+                AutoModPackUpdater.LOGGER.info("Mod pack update cancelled");
+                return;
+            }
+            report.finish("failed", e);
             AutoModPackUpdater.LOGGER.error("Mod pack update failed", e);
             String errMsg = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
             mc.execute(() -> mc.setScreen(new ModUpdaterScreen(List.of(), List.of(), true, errMsg)));
+        } finally {
+            if (!Thread.currentThread().isInterrupted()) {
+                report.write(gameDir);
+            }
+        }
+    }
+
+    private static PreparedUpdate awaitPrepared(Future<PreparedUpdate> prepared) throws InterruptedException {
+        try {
+            return prepared.get();
+        } catch (ExecutionException e) {
+            AutoModPackUpdater.LOGGER.warn("Background update check failed, retrying", e.getCause());
+            return null;
+        } catch (CancellationException e) {
+            return null;
         }
     }
+
+    private static PreparedUpdate prepareUpdate(Path gameDir, String repoUrl, AtomicReference<String> statusRef,
+            UpdateReport report) throws Exception {
+        Optional<ModPackUpdater.InterruptedUpdate> interrupted = ModPackUpdater.recoverInterruptedUpdate(gameDir);
+        if (interrupted.isPresent()) {
+            return new PreparedUpdate(interrupted.get().mods(), interrupted.get().plan(), report);
+        }
+        if (statusRef != null) {
+            statusRef.set("screen.automodpackupdater.status.fetching");
+        }
+        Future<?> prewarm = ManifestFetcher.isManifestUrl(repoUrl)
+                && ConfigLoader.loadSettings(gameDir).verifyHashes()
+                        ? EXECUTOR.submit(() -> ModPackUpdater.prewarmHashCache(gameDir))
+                        : null;
+        List<RemoteMod> mods;
+        try {
+            mods = ModPackUpdater.fetchRemoteMods(repoUrl, gameDir, report);
+        } finally {
+            if (prewarm != null) {
+                awaitQuietly(prewarm);
+            }
+        }
+        if (statusRef != null) {
+            statusRef.set("screen.automodpackupdater.status.computing");
+        }
+        return new PreparedUpdate(mods, ModPackUpdater.planUpdate(gameDir, mods, report), report);
+    }
+
+    private static void awaitQuietly(Future<?> future) throws InterruptedException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            AutoModPackUpdater.LOGGER.warn("Background hashing failed", e.getCause());
+        }
+    }
+
+    private static boolean isCancellation(Throwable e) {
+        return Thread.currentThread().isInterrupted()
+                || e instanceof InterruptedException
+                || e instanceof InterruptedIOException
+                || e instanceof ClosedByInterruptException;
+    }
 }
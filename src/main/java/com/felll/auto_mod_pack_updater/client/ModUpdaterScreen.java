@@ -3,6 +3,8 @@ package com.felll.auto_mod_pack_updater.client;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
+import com.felll.auto_mod_pack_updater.ProgressTracker;
+
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiGraphics;
 import net.minecraft.client.gui.components.Button;
@@ -19,31 +21,64 @@ public class ModUpdaterScreen extends Screen {
     private final List<String> removed;
     private final boolean completed;
     private final String errorMessage;
-    private final AtomicReference<DownloadProgress> progressRef;
+    private final ProgressTracker tracker;
+    private final ProgressTracker.Snapshot progress = new ProgressTracker.Snapshot();
     private final String repoUrl;
     private final AtomicReference<String> statusRef;
+    private final String[] removedRows;
+    private final String[] addedDoneRows;
+    private final String[] addedActiveRows;
+    private final String[] addedPendingRows;
+    private final int removedHeaderY;
+    private final int removedRowsY;
+    private final int addedHeaderY;
+    private final int addedRowsY;
+    private final int listHeight;
     private double scrollOffset;
-    private int listHeight;
 
     public ModUpdaterScreen(List<String> added, List<String> removed, boolean completed, String errorMessage) {
         this(added, removed, completed, errorMessage, null, null, null);
     }
 
     public ModUpdaterScreen(List<String> added, List<String> removed, boolean completed, String errorMessage,
-            AtomicReference<DownloadProgress> progressRef) {
-        this(added, removed, completed, errorMessage, progressRef, null, null);
+            ProgressTracker tracker) {
+        this(added, removed, completed, errorMessage, tracker, null, null);
     }
 
     public ModUpdaterScreen(List<String> added, List<String> removed, boolean completed, String errorMessage,
-            AtomicReference<DownloadProgress> progressRef, String repoUrl, AtomicReference<String> statusRef) {
+            ProgressTracker tracker, String repoUrl, AtomicReference<String> statusRef) {
         super(Component.translatable("screen.automodpackupdater.title"));
         this.added = added != null ? List.copyOf(added) : List.of();
         this.removed = removed != null ? List.copyOf(removed) : List.of();
         this.completed = completed;
         this.errorMessage = errorMessage;
-        this.progressRef = progressRef;
+        this.tracker = tracker;
         this.repoUrl = repoUrl;
         this.statusRef = statusRef;
+        this.removedRows = prefixed("- ", this.removed);
+        this.addedDoneRows = prefixed("[+] ", this.added);
+        this.addedActiveRows = prefixed(">>> ", this.added);
+        this.addedPendingRows = prefixed("[ ] ", this.added);
+        int contentY = 4;
+        removedHeaderY = contentY;
+        if (!this.removed.isEmpty()) {
+            contentY += 14 + this.removed.size() * LINE_HEIGHT + 8;
+        }
+        removedRowsY = removedHeaderY + 14;
+        addedHeaderY = contentY;
+        if (!this.added.isEmpty()) {
+            contentY += 14 + this.added.size() * LINE_HEIGHT + 8;
+        }
+        addedRowsY = addedHeaderY + 14;
+        listHeight = contentY;
+    }
+
+    private static String[] prefixed(String prefix, List<String> mods) {
+        String[] rows = new String[mods.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = prefix + mods.get(i);
+        }
+        return rows;
     }
 
     @Override
@@ -72,6 +107,9 @@ public class ModUpdaterScreen extends Screen {
     public void render(GuiGraphics guiGraphics, int mouseX, int mouseY, float partialTick) {
         renderBackground(guiGraphics, mouseX, mouseY, partialTick);
         super.render(guiGraphics, mouseX, mouseY, partialTick);
+        if (tracker != null) {
+            tracker.sample(progress);
+        }
         int y = 20;
         if (errorMessage != null) {
             guiGraphics.drawCenteredString(font, Component.literal(errorMessage), width / 2, y, 0xFF5555);
@@ -95,14 +133,14 @@ public class ModUpdaterScreen extends Screen {
             guiGraphics.drawCenteredString(font, Component.translatable("screen.automodpackupdater.updating"),
                     width / 2, y, 0xFFFFFF);
             y += 20;
-            DownloadProgress progress = progressRef != null ? progressRef.get() : null;
-            if (progress != null && progress.total() > 0) {
+            if (progress.totalFiles() > 0) {
+                String filename = progress.filename() != null ? progress.filename() : "";
                 String progressText = Component.translatable("screen.automodpackupdater.downloading",
-                        progress.current(), progress.total(), progress.filename()).getString();
+                        progress.current(), progress.totalFiles(), filename).getString();
                 guiGraphics.drawCenteredString(font, progressText, width / 2, y, 0x55FF55);
                 y += 14;
                 int barWidth = width - 80;
-                int filled = progress.total() > 0 ? (barWidth * progress.current()) / progress.total() : 0;
+                int filled = (barWidth * progress.current()) / progress.totalFiles();
                 guiGraphics.fill(width / 2 - barWidth / 2, y, width / 2 + barWidth / 2, y + 8, 0xFF333333);
                 guiGraphics.fill(width / 2 - barWidth / 2, y, width / 2 - barWidth / 2 + filled, y + 8, 0xFF55FF55);
                 y += 16;
@@ -116,69 +154,47 @@ public class ModUpdaterScreen extends Screen {
             }
         }
         if (!added.isEmpty() || !removed.isEmpty()) {
-            int listTop = LIST_TOP;
             int listBottom = height - 40;
-            listHeight = 0;
-            if (!added.isEmpty()) {
-                listHeight += 4 + 14 + added.size() * LINE_HEIGHT + 8;
-            }
+            guiGraphics.enableScissor(LIST_PADDING, LIST_TOP, width - LIST_PADDING, listBottom);
+            int originY = LIST_TOP - (int) scrollOffset;
             if (!removed.isEmpty()) {
-                listHeight += 14 + removed.size() * LINE_HEIGHT;
-            }
-            guiGraphics.enableScissor(LIST_PADDING, listTop, width - LIST_PADDING, listBottom);
-            int contentY = listTop - (int) scrollOffset;
-            boolean showRemovedFirst = !removed.isEmpty();
-            if (showRemovedFirst) {
-                contentY += 4;
                 guiGraphics.drawString(font, Component.translatable("screen.automodpackupdater.removing"), LIST_PADDING,
-                        contentY, 0xFF5555);
-                contentY += 14;
-                for (String mod : removed) {
-                    guiGraphics.drawString(font, "- " + mod, LIST_PADDING + 10, contentY, 0xFF5555);
-                    contentY += LINE_HEIGHT;
+                        originY + removedHeaderY, 0xFF5555);
+                int rowsY = originY + removedRowsY;
+                int last = lastVisibleRow(rowsY, listBottom, removedRows.length);
+                for (int i = firstVisibleRow(rowsY); i < last; i++) {
+                    guiGraphics.drawString(font, removedRows[i], LIST_PADDING + 10, rowsY + i * LINE_HEIGHT, 0xFF5555);
                 }
-                contentY += 8;
             }
             if (!added.isEmpty()) {
-                contentY += showRemovedFirst ? 0 : 4;
                 guiGraphics.drawString(font, Component.translatable("screen.automodpackupdater.adding"), LIST_PADDING,
-                        contentY, 0x55FF55);
-                contentY += 14;
-                int currentMod = progressRef != null && progressRef.get() != null ? progressRef.get().current() : 0;
-                for (int i = 0; i < added.size(); i++) {
-                    String mod = added.get(i);
-                    int modIndex = i + 1;
-                    int color;
-                    String prefix;
-                    if (completed || modIndex < currentMod) {
-                        color = 0x55FF55;
-                        prefix = "[+] ";
-                    } else if (modIndex == currentMod) {
-                        color = 0xFFFF55;
-                        prefix = ">>> ";
+                        originY + addedHeaderY, 0x55FF55);
+                int rowsY = originY + addedRowsY;
+                int last = lastVisibleRow(rowsY, listBottom, added.size());
+                for (int i = firstVisibleRow(rowsY); i < last; i++) {
+                    int rowY = rowsY + i * LINE_HEIGHT;
+                    String name = added.get(i);
+                    if (completed || progress.isCompleted(name)) {
+                        guiGraphics.drawString(font, addedDoneRows[i], LIST_PADDING + 10, rowY, 0x55FF55);
+                    } else if (progress.isActive(name)) {
+                        guiGraphics.drawString(font, addedActiveRows[i], LIST_PADDING + 10, rowY, 0xFFFF55);
                     } else {
-                        color = 0x888888;
-                        prefix = "[ ] ";
+                        guiGraphics.drawString(font, addedPendingRows[i], LIST_PADDING + 10, rowY, 0x888888);
                     }
-                    guiGraphics.drawString(font, prefix + mod, LIST_PADDING + 10, contentY, color);
-                    contentY += LINE_HEIGHT;
-                }
-                contentY += 8;
-            }
-            if (!removed.isEmpty() && !showRemovedFirst) {
-                guiGraphics.drawString(font, Component.translatable("screen.automodpackupdater.removing"), LIST_PADDING,
-                        contentY, 0xFF5555);
-                contentY += 14;
-                int removedColor = completed ? 0xFF5555 : 0xAAAAAA;
-                for (String mod : removed) {
-                    guiGraphics.drawString(font, "- " + mod, LIST_PADDING + 10, contentY, removedColor);
-                    contentY += LINE_HEIGHT;
                 }
             }
             guiGraphics.disableScissor();
         }
     }
 
+    private static int firstVisibleRow(int rowsY) {
+        return Math.max(0, (LIST_TOP - rowsY) / LINE_HEIGHT);
+    }
+
+    private static int lastVisibleRow(int rowsY, int listBottom, int rowCount) {
+        return Math.max(0, Math.min(rowCount, (listBottom - rowsY) / LINE_HEIGHT + 1));
+    }
+
     @Override
     public boolean shouldCloseOnEsc() {
         return false;